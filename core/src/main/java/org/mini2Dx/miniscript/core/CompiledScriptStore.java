@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Stores compiled script data in a directory so that unchanged scripts do not
+ * need to be compiled again after a restart.
+ *
+ * Entries are written to a temporary file and then moved into place so that
+ * multiple processes can safely share the same directory.
+ */
+public class CompiledScriptStore {
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+	private final Path directory;
+	private final String fileSuffix;
+
+	/**
+	 * Constructor
+	 * @param directory The directory to store entries in. Created if it does not exist.
+	 * @param fileSuffix The file suffix for entries
+	 * @throws IOException Thrown if the directory could not be created
+	 */
+	public CompiledScriptStore(Path directory, String fileSuffix) throws IOException {
+		this.directory = directory;
+		this.fileSuffix = fileSuffix;
+		Files.createDirectories(directory);
+	}
+
+	/**
+	 * Reads an entry from the store
+	 * @param key The key generated by {@link #createKey(String...)}
+	 * @return Null if the entry does not exist or could not be read
+	 */
+	public byte[] read(String key) {
+		try {
+			return Files.readAllBytes(getFile(key));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes an entry to the store, replacing any existing entry
+	 * @param key The key generated by {@link #createKey(String...)}
+	 * @param bytes The entry data
+	 */
+	public void write(String key, byte[] bytes) {
+		final Path file = getFile(key);
+		Path tmpFile = null;
+		try {
+			tmpFile = Files.createTempFile(directory, key, ".tmp");
+			Files.write(tmpFile, bytes);
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			tmpFile = null;
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if(tmpFile != null) {
+				try {
+					Files.deleteIfExists(tmpFile);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	public Path getFile(String key) {
+		return directory.resolve(key + fileSuffix);
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Creates a key from a SHA-256 hash of the given values
+	 * @param values The values that identify an entry, e.g. compiler settings and script content
+	 * @return A hex encoded key
+	 */
+	public static String createKey(String... values) {
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		for(String value : values) {
+			messageDigest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+			messageDigest.update((byte) 0);
+		}
+
+		final byte[] hash = messageDigest.digest();
+		final char[] result = new char[hash.length * 2];
+		for(int i = 0; i < hash.length; i++) {
+			result[i * 2] = HEX_CHARS[(hash[i] >> 4) & 0xF];
+			result[i * 2 + 1] = HEX_CHARS[hash[i] & 0xF];
+		}
+		return new String(result);
+	}
+}
@@ -66,7 +66,7 @@ public abstract class EmbeddedScriptInvoker {
 	 * @param scriptId The script ID to invoke
 	 */
 	public void invokeAsync(int scriptId) {
-		gameScriptingEngine.invokeCompiledScript(scriptId, scriptBindings.duplicate());
+		gameScriptingEngine.invokeCompiledScript(scriptId, scriptBindings.createChild());
 	}
 
 	/**
@@ -33,9 +33,15 @@ import org.mini2Dx.miniscript.core.notification.ScriptSkippedNotification;
 import org.mini2Dx.miniscript.core.threadpool.DefaultThreadPoolProvider;
 import org.mini2Dx.miniscript.core.util.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -62,8 +68,10 @@ public abstract class GameScriptingEngine implements Runnable {
 	private final InteractiveScriptListener interactiveScriptListener;
 
 	final ReadWriteArrayQueue<GameFuture> queuedFutures = new ReadWriteArrayQueue<>();
+	private final Queue<WorkerWarmup> pendingWarmups = new ConcurrentLinkedQueue<WorkerWarmup>();
 	final ReadWriteIntMap<GameFuture> runningFutures = new ReadWriteIntMap<GameFuture>();
 	private final ReadWriteIntMap<ScriptExecutionTask<?>> runningScripts = new ReadWriteIntMap<ScriptExecutionTask<?>>();
+	private final ReadWriteIntMap<String[]> scriptResultKeys = new ReadWriteIntMap<String[]>();
 	private final IntSet completedFutures = new IntSet();
 	private final IntSet completedScripts = new IntSet();
 
@@ -73,6 +81,7 @@ public abstract class GameScriptingEngine implements Runnable {
 	private final ScriptExecutorPool<?> scriptExecutorPool;
 
 	private ScheduledFuture cleanupTask;
+	private int maxConcurrentScripts;
 	private boolean cancelReallocatedFutures = true;
 
 	private Thread gameThread = null;
@@ -211,6 +220,7 @@ public abstract class GameScriptingEngine implements Runnable {
 	}
 
 	private void init(int maxConcurrentScripts) {
+		this.maxConcurrentScripts = maxConcurrentScripts;
 		for(int i = 0; i < maxConcurrentScripts; i++) {
 			threadPoolProvider.scheduleAtFixedRate(this, 16L, 16L, TimeUnit.MILLISECONDS);
 		}
@@ -225,9 +235,19 @@ public abstract class GameScriptingEngine implements Runnable {
 				}
 			}
 		}, 0L, 1L, TimeUnit.SECONDS);
+		scriptExecutorPool.prestartExecutors(threadPoolProvider);
 		MOST_RECENT_INSTANCE = this;
 	}
 
+	/**
+	 * Returns a future that completes once all script executors have been constructed.
+	 * Scripts can be compiled and invoked before this completes; executors are constructed on demand if required.
+	 * @return A {@link CompletableFuture} completed when the engine is fully initialised
+	 */
+	public CompletableFuture<Void> getReadyFuture() {
+		return scriptExecutorPool.getReadyFuture();
+	}
+
 	/**
 	 * Shuts down the thread pool and cleans up resources
 	 */
@@ -241,6 +261,8 @@ public abstract class GameScriptingEngine implements Runnable {
 	 */
 	public void dispose(boolean interruptScripts) {
 		shuttingDown.set(true);
+		scriptExecutorPool.cancelPrestartExecutors();
+		pendingWarmups.clear();
 
 		if(cleanupTask != null) {
 			cleanupTask.cancel(false);
@@ -274,6 +296,14 @@ public abstract class GameScriptingEngine implements Runnable {
 	protected abstract ScriptExecutorPool<?> createScriptExecutorPool(ClasspathScriptProvider classpathScriptProvider,
 	                                                                  int poolSize, boolean sandboxing);
 
+	/**
+	 * Returns the {@link ScriptExecutorPool} created by {@link #createScriptExecutorPool(ClasspathScriptProvider, int, boolean)}
+	 * @return The {@link ScriptExecutorPool} for this engine
+	 */
+	protected ScriptExecutorPool<?> getScriptExecutorPool() {
+		return scriptExecutorPool;
+	}
+
 	/**
 	 * Updates all {@link GameFuture}s
 	 * 
@@ -322,6 +352,7 @@ public abstract class GameScriptingEngine implements Runnable {
 		if(shuttingDown.get()) {
 			return;
 		}
+		warmupCurrentWorker();
 		long startTime = System.currentTimeMillis();
 		ScriptInvocation scriptInvocation = null;
 		try {
@@ -688,7 +719,7 @@ public abstract class GameScriptingEngine implements Runnable {
 	 * {@link InsufficientCompilersException}
 	 * 
 	 * @param inputStream
-	 *            The {@link InputStream} to read the script contents from
+	 *            The {@link InputStream} to read the UTF-8 script contents from
 	 * @return The unique id for the script
 	 * @throws InsufficientCompilersException
 	 *             Thrown if there are no script compilers available
@@ -696,12 +727,265 @@ public abstract class GameScriptingEngine implements Runnable {
 	 *             Throw if the {@link InputStream} could not be read or closed
 	 */
 	public int compileScript(String filepath, InputStream inputStream) throws InsufficientCompilersException, IOException {
-		Scanner scanner = new Scanner(inputStream);
-		scanner.useDelimiter("\\A");
-		String contents = scanner.hasNext() ? scanner.next() : "";
-		scanner.close();
-		inputStream.close();
-		return compileScript(filepath, contents);
+		return compileScript(filepath, readScript(inputStream));
+	}
+
+	/**
+	 * Compiles a batch of scripts for execution, spreading compilation across the thread pool.
+	 * The calling thread also compiles scripts and this method returns once all scripts are compiled.
+	 *
+	 * Note: If a filepath has already been compiled, the script will not be compiled and the previous compilation is used.
+	 *
+	 * @param scripts A map of filepaths to script contents
+	 * @return A map of filepaths to script IDs
+	 * @throws InsufficientCompilersException
+	 *             Thrown if there are no script compilers available
+	 */
+	public Map<String, Integer> compileScripts(Map<String, String> scripts) throws InsufficientCompilersException {
+		final List<ParallelScriptCompiler.ScriptSource> scriptSources = new ArrayList<ParallelScriptCompiler.ScriptSource>();
+		for(final Map.Entry<String, String> script : scripts.entrySet()) {
+			scriptSources.add(new ParallelScriptCompiler.ScriptSource(script.getKey()) {
+				@Override
+				String read() {
+					return script.getValue();
+				}
+			});
+		}
+		try {
+			return compileScripts(scriptSources);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Compiles a batch of scripts for execution, spreading compilation (and reading of each {@link InputStream})
+	 * across the thread pool. The calling thread also compiles scripts and this method returns once all scripts are compiled.
+	 *
+	 * @param scripts A map of filepaths to the {@link InputStream} to read each script's contents from
+	 * @return A map of filepaths to script IDs
+	 * @throws InsufficientCompilersException
+	 *             Thrown if there are no script compilers available
+	 * @throws IOException
+	 *             Throw if an {@link InputStream} could not be read or closed
+	 */
+	public Map<String, Integer> compileScriptStreams(Map<String, InputStream> scripts) throws InsufficientCompilersException, IOException {
+		final List<ParallelScriptCompiler.ScriptSource> scriptSources = new ArrayList<ParallelScriptCompiler.ScriptSource>();
+		for(final Map.Entry<String, InputStream> script : scripts.entrySet()) {
+			scriptSources.add(new ParallelScriptCompiler.ScriptSource(script.getKey()) {
+				@Override
+				String read() throws IOException {
+					return readScript(script.getValue());
+				}
+			});
+		}
+		return compileScripts(scriptSources);
+	}
+
+	/**
+	 * Compiles a batch of script files for execution, spreading file reads and compilation across the thread pool.
+	 * Each script's filepath is its path relative to the root directory using '/' as the separator.
+	 * Files are read as UTF-8.
+	 *
+	 * @param rootDirectory The directory that script filepaths are relative to
+	 * @param scriptFiles The script files to compile
+	 * @return A map of filepaths to script IDs
+	 * @throws InsufficientCompilersException
+	 *             Thrown if there are no script compilers available
+	 * @throws IOException
+	 *             Throw if a file could not be read
+	 */
+	public Map<String, Integer> compileScriptFiles(Path rootDirectory, Collection<Path> scriptFiles) throws InsufficientCompilersException, IOException {
+		final List<ParallelScriptCompiler.ScriptSource> scriptSources = new ArrayList<ParallelScriptCompiler.ScriptSource>();
+		final String separator = rootDirectory.getFileSystem().getSeparator();
+		for(final Path scriptFile : scriptFiles) {
+			final String filepath = rootDirectory.relativize(scriptFile).toString().replace(separator, "/");
+			scriptSources.add(new ParallelScriptCompiler.ScriptSource(filepath) {
+				@Override
+				String read() throws IOException {
+					return new String(Files.readAllBytes(scriptFile), StandardCharsets.UTF_8);
+				}
+			});
+		}
+		return compileScripts(scriptSources);
+	}
+
+	private Map<String, Integer> compileScripts(List<ParallelScriptCompiler.ScriptSource> scriptSources) throws InsufficientCompilersException, IOException {
+		final int totalThreads = threadPoolProvider.getTotalThreads() > 0 ?
+				threadPoolProvider.getTotalThreads() : maxConcurrentScripts + 1;
+		final int parallelism = Math.min(totalThreads, Runtime.getRuntime().availableProcessors());
+		return new ParallelScriptCompiler(this, scriptSources).compile(threadPoolProvider, parallelism);
+	}
+
+	/**
+	 * Compiles a script on the thread pool so that the calling thread (e.g. the game thread) is not blocked
+	 *
+	 * Note: If the filepath has already been compiled, the script will not be compiled and the previous compilation is used.
+	 *
+	 * @param filepath The filepath to store for the script
+	 * @param scriptContent The text contents of the script
+	 * @return A {@link CompletableFuture} that completes with the unique id for the script
+	 */
+	public CompletableFuture<Integer> compileScriptAsync(final String filepath, final String scriptContent) {
+		final CompletableFuture<Integer> result = new CompletableFuture<Integer>();
+		threadPoolProvider.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					result.complete(compileScript(filepath, scriptContent));
+				} catch (Exception e) {
+					result.completeExceptionally(e);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Compiles a batch of scripts on the thread pool so that the calling thread (e.g. the game thread) is not blocked
+	 *
+	 * @param scripts A map of filepaths to script contents
+	 * @return A {@link CompletableFuture} that completes with a map of filepaths to script IDs
+	 */
+	public CompletableFuture<Map<String, Integer>> compileScriptsAsync(final Map<String, String> scripts) {
+		final CompletableFuture<Map<String, Integer>> result = new CompletableFuture<Map<String, Integer>>();
+		threadPoolProvider.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					result.complete(compileScripts(scripts));
+				} catch (Exception e) {
+					result.completeExceptionally(e);
+				}
+			}
+		});
+		return result;
+	}
+
+	private static String readScript(InputStream inputStream) throws IOException {
+		try {
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(inputStream.available(), 4096));
+			final byte[] buffer = new byte[8192];
+			int bytesRead;
+			while((bytesRead = inputStream.read(buffer)) > -1) {
+				outputStream.write(buffer, 0, bytesRead);
+			}
+			return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Compiles all scripts on every script thread ahead of their first invocation. Only scripting languages
+	 * that compile scripts separately for each thread have any work to do. Call this after all scripts are
+	 * compiled, e.g. during a loading screen. A script thread compiles the scripts before running any other script.
+	 *
+	 * Note: Each script thread is warmed up by the next task it runs. If a custom {@link ThreadPoolProvider}
+	 * does not report its total threads, it is assumed to have maxConcurrentScripts + 1 threads and
+	 * the {@link WarmupProgress} will not complete if the pool has fewer threads.
+	 *
+	 * @return The {@link WarmupProgress} to poll for progress
+	 */
+	public WarmupProgress warmup() {
+		return warmup(null);
+	}
+
+	/**
+	 * Compiles all scripts on every script thread ahead of their first invocation. See {@link #warmup()}
+	 *
+	 * @param scriptBindings Bindings representative of those scripts will be invoked with. Some languages
+	 *                       (e.g. Ruby) can only reuse a warmed up compilation when the binding names are known.
+	 * @return The {@link WarmupProgress} to poll for progress
+	 */
+	public WarmupProgress warmup(ScriptBindings scriptBindings) {
+		return prewarm(scriptExecutorPool.getPerThreadScriptIds(), scriptBindings);
+	}
+
+	/**
+	 * Compiles the specified scripts on every script thread ahead of their first invocation. See {@link #warmup()}
+	 *
+	 * @param scriptIds The IDs of the scripts to compile
+	 * @return The {@link WarmupProgress} to poll for progress
+	 */
+	public WarmupProgress prewarm(Collection<Integer> scriptIds) {
+		return prewarm(scriptIds, null);
+	}
+
+	/**
+	 * Compiles the specified scripts on every script thread ahead of their first invocation. See {@link #warmup(ScriptBindings)}
+	 *
+	 * @param scriptIds The IDs of the scripts to compile
+	 * @param scriptBindings Bindings representative of those the scripts will be invoked with. May be null.
+	 * @return The {@link WarmupProgress} to poll for progress
+	 */
+	public WarmupProgress prewarm(Collection<Integer> scriptIds, final ScriptBindings scriptBindings) {
+		final Collection<Integer> perThreadScriptIds = scriptExecutorPool.getPerThreadScriptIds();
+		final List<Integer> warmupScriptIds = new ArrayList<Integer>();
+		for(Integer scriptId : scriptIds) {
+			if(perThreadScriptIds.contains(scriptId)) {
+				warmupScriptIds.add(scriptId);
+			}
+		}
+		if(warmupScriptIds.isEmpty()) {
+			return new WarmupProgress(0, 0);
+		}
+
+		final int totalThreads = threadPoolProvider.getTotalThreads() > 0 ?
+				threadPoolProvider.getTotalThreads() : maxConcurrentScripts + 1;
+		final WorkerWarmup workerWarmup = new WorkerWarmup(warmupScriptIds, scriptBindings, totalThreads);
+		pendingWarmups.offer(workerWarmup);
+
+		//Threads that pick up more than one of these tasks are idle, the remaining threads are warmed by their next task
+		for(int i = 0; i < totalThreads; i++) {
+			threadPoolProvider.submit(new Runnable() {
+				@Override
+				public void run() {
+					warmupCurrentWorker();
+				}
+			});
+		}
+		return workerWarmup.getProgress();
+	}
+
+	/**
+	 * Runs any pending warmups that the current thread has not completed yet
+	 */
+	void warmupCurrentWorker() {
+		if(pendingWarmups.isEmpty() || shuttingDown.get()) {
+			return;
+		}
+		final Iterator<WorkerWarmup> iterator = pendingWarmups.iterator();
+		while(iterator.hasNext()) {
+			if(iterator.next().warmupCurrentWorker(scriptExecutorPool)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Sets the variable names to include in the {@link ScriptExecutionResult} of a script.
+	 * Only these variables are read back from the script runtime after execution unless
+	 * the {@link ScriptInvocationListener} returns its own result keys.
+	 *
+	 * @param scriptId The script id
+	 * @param resultKeys The variable names or null to include all variables
+	 */
+	public void setScriptResultKeys(int scriptId, String... resultKeys) {
+		if(resultKeys == null) {
+			scriptResultKeys.remove(scriptId);
+		} else {
+			scriptResultKeys.put(scriptId, resultKeys);
+		}
+	}
+
+	/**
+	 * Returns the variable names to include in the {@link ScriptExecutionResult} of a script
+	 * @param scriptId The script id
+	 * @return Null if all variables are included
+	 */
+	public String[] getScriptResultKeys(int scriptId) {
+		return scriptResultKeys.get(scriptId);
 	}
 
 	/**
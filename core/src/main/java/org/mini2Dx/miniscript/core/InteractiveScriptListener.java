@@ -150,6 +150,15 @@ public class InteractiveScriptListener implements ScriptInvocationListener {
 		invocationQueue.clearInteractiveScriptStatus();
 	}
 
+	@Override
+	public String[] getResultKeys() {
+		final ScriptInvocationListener invocationListener = this.invocationListener.get();
+		if(invocationListener == null) {
+			return null;
+		}
+		return invocationListener.getResultKeys();
+	}
+
 	public ScriptInvocationListener getInvocationListener() {
 		return invocationListener.get();
 	}
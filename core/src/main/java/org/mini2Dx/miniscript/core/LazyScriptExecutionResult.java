@@ -0,0 +1,229 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link ScriptExecutionResult} that stores values in their script runtime representation
+ * and only converts them to Java values when they are first read
+ *
+ * @param <T> The script runtime's value type
+ */
+public abstract class LazyScriptExecutionResult<T> extends ScriptExecutionResult {
+	private Map<String, T> unconvertedValues;
+
+	public LazyScriptExecutionResult() {
+		super(null);
+	}
+
+	/**
+	 * Stores a value that will be converted when it is first read
+	 * @param key The variable name
+	 * @param value The non-null script runtime value
+	 */
+	public synchronized void putUnconverted(String key, T value) {
+		super.remove(key);
+		if(unconvertedValues == null) {
+			unconvertedValues = new HashMap<String, T>();
+		}
+		unconvertedValues.put(key, value);
+	}
+
+	/**
+	 * Converts a script runtime value and stores it via {@link #put(String, Object)} or
+	 * one of the primitive put methods
+	 * @param key The variable name
+	 * @param value The script runtime value
+	 */
+	protected abstract void convert(String key, T value);
+
+	private void convertValue(Object key) {
+		if(unconvertedValues == null) {
+			return;
+		}
+		final T value = unconvertedValues.remove(key);
+		if(value == null) {
+			return;
+		}
+		convert((String) key, value);
+	}
+
+	private void convertAllValues() {
+		if(unconvertedValues == null) {
+			return;
+		}
+		final Map<String, T> values = unconvertedValues;
+		unconvertedValues = null;
+		for(Map.Entry<String, T> entry : values.entrySet()) {
+			convert(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void discardValue(Object key) {
+		if(unconvertedValues == null) {
+			return;
+		}
+		unconvertedValues.remove(key);
+	}
+
+	@Override
+	public synchronized Object get(Object key) {
+		convertValue(key);
+		return super.get(key);
+	}
+
+	@Override
+	public synchronized boolean containsKey(Object key) {
+		if(unconvertedValues != null && unconvertedValues.containsKey(key)) {
+			return true;
+		}
+		return super.containsKey(key);
+	}
+
+	@Override
+	public synchronized int getInt(String key, int defaultValue) {
+		convertValue(key);
+		return super.getInt(key, defaultValue);
+	}
+
+	@Override
+	public synchronized float getFloat(String key, float defaultValue) {
+		convertValue(key);
+		return super.getFloat(key, defaultValue);
+	}
+
+	@Override
+	public synchronized double getDouble(String key, double defaultValue) {
+		convertValue(key);
+		return super.getDouble(key, defaultValue);
+	}
+
+	@Override
+	public synchronized boolean getBoolean(String key, boolean defaultValue) {
+		convertValue(key);
+		return super.getBoolean(key, defaultValue);
+	}
+
+	@Override
+	public synchronized ScriptBindingType getType(String key) {
+		convertValue(key);
+		return super.getType(key);
+	}
+
+	@Override
+	public synchronized Object put(String key, Object value) {
+		convertValue(key);
+		return super.put(key, value);
+	}
+
+	@Override
+	public synchronized void putInt(String key, int value) {
+		discardValue(key);
+		super.putInt(key, value);
+	}
+
+	@Override
+	public synchronized void putFloat(String key, float value) {
+		discardValue(key);
+		super.putFloat(key, value);
+	}
+
+	@Override
+	public synchronized void putDouble(String key, double value) {
+		discardValue(key);
+		super.putDouble(key, value);
+	}
+
+	@Override
+	public synchronized void putBoolean(String key, boolean value) {
+		discardValue(key);
+		super.putBoolean(key, value);
+	}
+
+	@Override
+	public synchronized Object remove(Object key) {
+		convertValue(key);
+		return super.remove(key);
+	}
+
+	@Override
+	public synchronized void clear() {
+		unconvertedValues = null;
+		super.clear();
+	}
+
+	@Override
+	public synchronized int size() {
+		convertAllValues();
+		return super.size();
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		if(unconvertedValues != null && !unconvertedValues.isEmpty()) {
+			return false;
+		}
+		return super.isEmpty();
+	}
+
+	@Override
+	public synchronized boolean containsValue(Object value) {
+		convertAllValues();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public synchronized Set<String> keySet() {
+		convertAllValues();
+		return super.keySet();
+	}
+
+	@Override
+	public synchronized Collection<Object> values() {
+		convertAllValues();
+		return super.values();
+	}
+
+	@Override
+	public synchronized Set<Entry<String, Object>> entrySet() {
+		convertAllValues();
+		return super.entrySet();
+	}
+
+	@Override
+	public synchronized ScriptBindings duplicate() {
+		convertAllValues();
+		return super.duplicate();
+	}
+
+	@Override
+	public synchronized ScriptBindings createChild() {
+		convertAllValues();
+		return super.createChild();
+	}
+}
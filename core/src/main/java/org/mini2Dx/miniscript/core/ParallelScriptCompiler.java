@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
+import org.mini2Dx.miniscript.core.util.ReadWriteMap;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compiles a batch of scripts in parallel. The calling thread compiles scripts alongside the thread pool
+ * so that compilation always progresses, even while every pool thread is busy running scripts.
+ */
+class ParallelScriptCompiler {
+	private final GameScriptingEngine gameScriptingEngine;
+	private final Queue<ScriptSource> pendingScripts = new ConcurrentLinkedQueue<ScriptSource>();
+	private final Map<String, Integer> scriptIds = new ReadWriteMap<String, Integer>();
+	private final AtomicReference<Exception> exception = new AtomicReference<Exception>();
+	private final CountDownLatch remainingScripts;
+
+	ParallelScriptCompiler(GameScriptingEngine gameScriptingEngine, Iterable<ScriptSource> scriptSources) {
+		super();
+		this.gameScriptingEngine = gameScriptingEngine;
+
+		for(ScriptSource scriptSource : scriptSources) {
+			pendingScripts.offer(scriptSource);
+		}
+		remainingScripts = new CountDownLatch(pendingScripts.size());
+	}
+
+	/**
+	 * Compiles all scripts, returning once every script has been compiled
+	 * @param threadPoolProvider The {@link ThreadPoolProvider} to compile on alongside the calling thread
+	 * @param parallelism The maximum amount of threads (including the calling thread) to compile on
+	 * @return A map of filepaths to script IDs
+	 */
+	Map<String, Integer> compile(ThreadPoolProvider threadPoolProvider, int parallelism) throws InsufficientCompilersException, IOException {
+		final int totalHelpers = Math.min(parallelism, pendingScripts.size()) - 1;
+		for(int i = 0; i < totalHelpers; i++) {
+			threadPoolProvider.submit(new Runnable() {
+				@Override
+				public void run() {
+					compilePendingScripts();
+				}
+			});
+		}
+		compilePendingScripts();
+
+		try {
+			remainingScripts.await();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+
+		final Exception exception = this.exception.get();
+		if(exception instanceof InsufficientCompilersException) {
+			throw (InsufficientCompilersException) exception;
+		} else if(exception instanceof IOException) {
+			throw (IOException) exception;
+		} else if(exception instanceof RuntimeException) {
+			throw (RuntimeException) exception;
+		}
+		return scriptIds;
+	}
+
+	private void compilePendingScripts() {
+		ScriptSource scriptSource;
+		while((scriptSource = pendingScripts.poll()) != null) {
+			try {
+				if(exception.get() == null) {
+					scriptIds.put(scriptSource.filepath,
+							gameScriptingEngine.compileScript(scriptSource.filepath, scriptSource.read()));
+				}
+			} catch (Exception e) {
+				exception.compareAndSet(null, e);
+			} finally {
+				remainingScripts.countDown();
+			}
+		}
+	}
+
+	/**
+	 * A script to be compiled. The content is read on the compiling thread.
+	 */
+	static abstract class ScriptSource {
+		final String filepath;
+
+		ScriptSource(String filepath) {
+			this.filepath = filepath;
+		}
+
+		abstract String read() throws IOException;
+	}
+}
@@ -23,12 +23,10 @@
  */
 package org.mini2Dx.miniscript.core;
 
-import org.mini2Dx.miniscript.core.util.ReadWriteMap;
-
-import java.util.Map;
+import org.mini2Dx.miniscript.core.util.WorkerLocal;
 
 public class PerThreadClasspathGameScript<S> extends GameScript<S> {
-	private final Map<Long, S> threadToScriptMapping = new ReadWriteMap<>();
+	private final WorkerLocal<S> threadToScriptMapping = new WorkerLocal<S>();
 	private final S content;
 
 	public PerThreadClasspathGameScript(S content) {
@@ -38,17 +36,17 @@ public class PerThreadClasspathGameScript<S> extends GameScript<S> {
 
 	@Override
 	public S getScript() {
-		return threadToScriptMapping.get(Thread.currentThread().getId());
+		return threadToScriptMapping.get();
 	}
 
 	@Override
 	public boolean hasScript() {
-		return threadToScriptMapping.containsKey(Thread.currentThread().getId());
+		return threadToScriptMapping.get() != null;
 	}
 
 	@Override
 	public void setScript(S script) {
-		threadToScriptMapping.put(Thread.currentThread().getId(), script);
+		threadToScriptMapping.set(script);
 	}
 
 	public S compileInstance() {
@@ -23,16 +23,14 @@
  */
 package org.mini2Dx.miniscript.core;
 
-import org.mini2Dx.miniscript.core.util.ReadWriteMap;
-
-import java.util.Map;
+import org.mini2Dx.miniscript.core.util.WorkerLocal;
 
 /**
  * An implementation of {@link GameScript} for language runtimes where
  * a script must be compiled on a per thread basis
  */
 public class PerThreadGameScript<S> extends GameScript<S> {
-	private final Map<Long, S> threadToScriptMapping = new ReadWriteMap<>();
+	private final WorkerLocal<S> threadToScriptMapping = new WorkerLocal<S>();
 	private final String content;
 	
 	public PerThreadGameScript(String content) {
@@ -42,17 +40,25 @@ public class PerThreadGameScript<S> extends GameScript<S> {
 
 	@Override
 	public S getScript() {
-		return threadToScriptMapping.get(Thread.currentThread().getId());
+		return threadToScriptMapping.get();
 	}
 
 	@Override
 	public boolean hasScript() {
-		return threadToScriptMapping.containsKey(Thread.currentThread().getId());
+		return threadToScriptMapping.get() != null;
 	}
 
 	@Override
 	public void setScript(S script) {
-		threadToScriptMapping.put(Thread.currentThread().getId(), script);
+		threadToScriptMapping.set(script);
+	}
+
+	/**
+	 * Returns the amount of script worker threads that hold a compiled copy of this script
+	 * @return 0 if the script has not been compiled on any worker thread
+	 */
+	public int getTotalWorkerScripts() {
+		return threadToScriptMapping.getTotalWorkerValues();
 	}
 
 	public String getContent() {
@@ -33,7 +33,27 @@ public class ScriptBindings implements Map<String, Object> {
 	public static final String SCRIPT_PARENT_ID_VAR = "scriptParentId";
 	public static final String SCRIPT_INVOKE_VAR = "scripts";
 
-	private final Map<String, Object> bindings = Collections.synchronizedMap(new HashMap<String, Object>());
+	/**
+	 * The maximum amount of frozen layers before they are flattened into a single layer
+	 */
+	private static final int MAX_LAYER_DEPTH = 8;
+	/**
+	 * Marks a key as removed in a layer that shadows a frozen layer
+	 */
+	private static final Object REMOVED = new Object();
+	private static final Object ABSENT = new Object();
+
+	private Map<String, Object> bindings = new HashMap<String, Object>();
+	private Layer parent;
+
+	public ScriptBindings() {
+		super();
+	}
+
+	private ScriptBindings(Layer parent) {
+		super();
+		this.parent = parent;
+	}
 
 	/**
 	 * Creates a duplicate instance of this {@link ScriptBindings}
@@ -41,83 +61,628 @@ public class ScriptBindings implements Map<String, Object> {
 	 * @return A new {@link ScriptBindings} instance containing all the same
 	 *         bindings as this instance
 	 */
-	public ScriptBindings duplicate() {
-		ScriptBindings result = new ScriptBindings();
-		result.putAll(bindings);
+	public synchronized ScriptBindings duplicate() {
+		final ScriptBindings result = new ScriptBindings();
+		final RawEntryIterator iterator = new RawEntryIterator();
+		while(iterator.hasNext()) {
+			final Entry<String, Object> entry = iterator.next();
+			if(entry.getValue() instanceof PrimitiveValue) {
+				result.bindings.put(entry.getKey(), ((PrimitiveValue) entry.getValue()).copy());
+			} else {
+				result.bindings.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a copy-on-write child of this {@link ScriptBindings}. The child shares the
+	 * entries of this instance instead of copying them and only stores the entries written to it.
+	 * Changes made to either instance after this call are not visible to the other.
+	 *
+	 * @return A new {@link ScriptBindings} instance containing all the same
+	 *         bindings as this instance
+	 */
+	public synchronized ScriptBindings createChild() {
+		freeze();
+		return new ScriptBindings(parent);
+	}
+
+	private void freeze() {
+		if(bindings.isEmpty()) {
+			return;
+		}
+		if(parent != null && parent.depth >= MAX_LAYER_DEPTH) {
+			parent = new Layer(flatten(), null);
+		} else {
+			parent = new Layer(bindings, parent);
+		}
+		bindings = new HashMap<String, Object>();
+	}
+
+	private Map<String, Object> flatten() {
+		final Map<String, Object> result = new HashMap<String, Object>();
+		final RawEntryIterator iterator = new RawEntryIterator();
+		while(iterator.hasNext()) {
+			final Entry<String, Object> entry = iterator.next();
+			result.put(entry.getKey(), entry.getValue());
+		}
 		return result;
 	}
 
+	/**
+	 * Looks up the value for a key through all layers
+	 * @param key The key to look up
+	 * @return {@link #REMOVED} if the key is not present
+	 */
+	private Object lookup(Object key) {
+		Object result = bindings.getOrDefault(key, ABSENT);
+		if(result != ABSENT) {
+			return result;
+		}
+		for(Layer layer = parent; layer != null; layer = layer.parent) {
+			result = layer.bindings.getOrDefault(key, ABSENT);
+			if(result != ABSENT) {
+				return result;
+			}
+		}
+		return REMOVED;
+	}
+
+	private boolean isShadowed(Object key, Layer layer) {
+		if(bindings.containsKey(key)) {
+			return true;
+		}
+		for(Layer shadowingLayer = parent; shadowingLayer != layer; shadowingLayer = shadowingLayer.parent) {
+			if(shadowingLayer.bindings.containsKey(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
-	public int size() {
-		return bindings.size();
+	public synchronized int size() {
+		if(parent == null) {
+			return bindings.size();
+		}
+		int result = 0;
+		final RawEntryIterator iterator = new RawEntryIterator();
+		while(iterator.hasNext()) {
+			iterator.next();
+			result++;
+		}
+		return result;
 	}
 
 	@Override
-	public boolean isEmpty() {
-		return bindings.isEmpty();
+	public synchronized boolean isEmpty() {
+		if(parent == null) {
+			return bindings.isEmpty();
+		}
+		return !new RawEntryIterator().hasNext();
 	}
 
 	@Override
-	public boolean containsKey(Object key) {
-		return bindings.containsKey(key);
+	public synchronized boolean containsKey(Object key) {
+		if(parent == null) {
+			return bindings.containsKey(key);
+		}
+		return lookup(key) != REMOVED;
 	}
 
 	@Override
-	public boolean containsValue(Object value) {
-		return bindings.containsValue(value);
+	public synchronized boolean containsValue(Object value) {
+		final RawEntryIterator iterator = new RawEntryIterator();
+		while(iterator.hasNext()) {
+			if(Objects.equals(value, unwrap(iterator.next().getValue()))) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@Override
-	public Object get(Object key) {
-		return bindings.get(key);
+	public synchronized Object get(Object key) {
+		if(parent == null) {
+			return unwrap(bindings.get(key));
+		}
+		final Object result = lookup(key);
+		return result == REMOVED ? null : unwrap(result);
 	}
 
 	@Override
-	public Object put(String key, Object value) {
-		return bindings.put(key, value);
+	public synchronized Object put(String key, Object value) {
+		if(parent == null) {
+			return unwrap(bindings.put(key, value));
+		}
+		final Object result = lookup(key);
+		bindings.put(key, value);
+		return result == REMOVED ? null : unwrap(result);
 	}
 
 	@Override
-	public Object remove(Object key) {
-		return bindings.remove(key);
+	public synchronized Object remove(Object key) {
+		if(parent == null) {
+			return unwrap(bindings.remove(key));
+		}
+		final Object result = lookup(key);
+		if(result == REMOVED) {
+			return null;
+		}
+		bindings.put((String) key, REMOVED);
+		return unwrap(result);
+	}
+
+	/**
+	 * Stores an int value without boxing it
+	 * @param key The variable name
+	 * @param value The value
+	 */
+	public synchronized void putInt(String key, int value) {
+		putPrimitive(key, ScriptBindingType.INT, value);
+	}
+
+	/**
+	 * Stores a float value without boxing it
+	 * @param key The variable name
+	 * @param value The value
+	 */
+	public synchronized void putFloat(String key, float value) {
+		putPrimitive(key, ScriptBindingType.FLOAT, value);
+	}
+
+	/**
+	 * Stores a double value without boxing it
+	 * @param key The variable name
+	 * @param value The value
+	 */
+	public synchronized void putDouble(String key, double value) {
+		putPrimitive(key, ScriptBindingType.DOUBLE, value);
+	}
+
+	/**
+	 * Stores a boolean value without boxing it
+	 * @param key The variable name
+	 * @param value The value
+	 */
+	public synchronized void putBoolean(String key, boolean value) {
+		putPrimitive(key, ScriptBindingType.BOOLEAN, value ? 1.0 : 0.0);
+	}
+
+	private void putPrimitive(String key, ScriptBindingType type, double value) {
+		final Object existing = bindings.get(key);
+		if(existing instanceof PrimitiveValue) {
+			//Values in the local map are never shared so can be updated in place
+			((PrimitiveValue) existing).set(type, value);
+			return;
+		}
+		bindings.put(key, new PrimitiveValue(type, value));
+	}
+
+	/**
+	 * Returns an int value. Values stored as any {@link Number} are converted.
+	 * @param key The variable name
+	 * @return 0 if no value is stored for the variable
+	 */
+	public int getInt(String key) {
+		return getInt(key, 0);
+	}
+
+	/**
+	 * Returns an int value. Values stored as any {@link Number} are converted.
+	 * @param key The variable name
+	 * @param defaultValue The value to return if no value is stored for the variable
+	 * @return The stored value
+	 */
+	public synchronized int getInt(String key, int defaultValue) {
+		final Object value = lookup(key);
+		if(value instanceof PrimitiveValue) {
+			return (int) ((PrimitiveValue) value).value;
+		}
+		if(value == REMOVED || value == null) {
+			return defaultValue;
+		}
+		return ((Number) value).intValue();
+	}
+
+	/**
+	 * Returns a float value. Values stored as any {@link Number} are converted.
+	 * @param key The variable name
+	 * @return 0 if no value is stored for the variable
+	 */
+	public float getFloat(String key) {
+		return getFloat(key, 0f);
+	}
+
+	/**
+	 * Returns a float value. Values stored as any {@link Number} are converted.
+	 * @param key The variable name
+	 * @param defaultValue The value to return if no value is stored for the variable
+	 * @return The stored value
+	 */
+	public synchronized float getFloat(String key, float defaultValue) {
+		final Object value = lookup(key);
+		if(value instanceof PrimitiveValue) {
+			return (float) ((PrimitiveValue) value).value;
+		}
+		if(value == REMOVED || value == null) {
+			return defaultValue;
+		}
+		return ((Number) value).floatValue();
+	}
+
+	/**
+	 * Returns a double value. Values stored as any {@link Number} are converted.
+	 * @param key The variable name
+	 * @return 0 if no value is stored for the variable
+	 */
+	public double getDouble(String key) {
+		return getDouble(key, 0.0);
+	}
+
+	/**
+	 * Returns a double value. Values stored as any {@link Number} are converted.
+	 * @param key The variable name
+	 * @param defaultValue The value to return if no value is stored for the variable
+	 * @return The stored value
+	 */
+	public synchronized double getDouble(String key, double defaultValue) {
+		final Object value = lookup(key);
+		if(value instanceof PrimitiveValue) {
+			return ((PrimitiveValue) value).value;
+		}
+		if(value == REMOVED || value == null) {
+			return defaultValue;
+		}
+		return ((Number) value).doubleValue();
+	}
+
+	/**
+	 * Returns a boolean value
+	 * @param key The variable name
+	 * @return false if no value is stored for the variable
+	 */
+	public boolean getBoolean(String key) {
+		return getBoolean(key, false);
+	}
+
+	/**
+	 * Returns a boolean value
+	 * @param key The variable name
+	 * @param defaultValue The value to return if no value is stored for the variable
+	 * @return The stored value
+	 */
+	public synchronized boolean getBoolean(String key, boolean defaultValue) {
+		final Object value = lookup(key);
+		if(value instanceof PrimitiveValue) {
+			return ((PrimitiveValue) value).value != 0.0;
+		}
+		if(value == REMOVED || value == null) {
+			return defaultValue;
+		}
+		return (Boolean) value;
+	}
+
+	/**
+	 * Returns how a value is stored so that it can be read without boxing
+	 * @param key The variable name
+	 * @return Null if no value is stored for the variable
+	 */
+	public synchronized ScriptBindingType getType(String key) {
+		final Object value = lookup(key);
+		if(value instanceof PrimitiveValue) {
+			return ((PrimitiveValue) value).type;
+		}
+		if(value == REMOVED) {
+			return null;
+		}
+		return ScriptBindingType.OBJECT;
+	}
+
+	private static Object unwrap(Object value) {
+		if(value instanceof PrimitiveValue) {
+			return ((PrimitiveValue) value).box();
+		}
+		return value;
 	}
 
 	@Override
-	public void putAll(Map<? extends String, ? extends Object> m) {
-		bindings.putAll(m);
+	public synchronized void putAll(Map<? extends String, ? extends Object> m) {
+		for(Entry<? extends String, ? extends Object> entry : m.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
 	}
 
 	@Override
-	public void clear() {
+	public synchronized void clear() {
 		bindings.clear();
+		parent = null;
 	}
 
 	@Override
 	public Set<String> keySet() {
-		return bindings.keySet();
+		return keySet;
 	}
 
 	@Override
 	public Collection<Object> values() {
-		return bindings.values();
+		return values;
 	}
 
 	@Override
 	public Set<java.util.Map.Entry<String, Object>> entrySet() {
-		return bindings.entrySet();
+		return entrySet;
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder result = new StringBuilder("ScriptBindings [");
-		for (String key : bindings.keySet()) {
+		for (String key : keySet()) {
 			result.append(key);
 			result.append("=");
-			result.append(bindings.get(key));
+			result.append(get(key));
 			result.append(", ");
 		}
 		result.delete(result.length() - 2, result.length());
 		result.append("]");
 		return result.toString();
 	}
+
+	/**
+	 * An immutable set of bindings shared between a {@link ScriptBindings} instance and its children
+	 */
+	private static class Layer {
+		private final Map<String, Object> bindings;
+		private final Layer parent;
+		private final int depth;
+
+		Layer(Map<String, Object> bindings, Layer parent) {
+			this.bindings = bindings;
+			this.parent = parent;
+			this.depth = parent == null ? 1 : parent.depth + 1;
+		}
+	}
+
+	/**
+	 * An unboxed value. Instances are only modified while in the local bindings of a {@link ScriptBindings}.
+	 */
+	private static class PrimitiveValue {
+		private ScriptBindingType type;
+		private double value;
+
+		PrimitiveValue(ScriptBindingType type, double value) {
+			set(type, value);
+		}
+
+		void set(ScriptBindingType type, double value) {
+			this.type = type;
+			this.value = value;
+		}
+
+		PrimitiveValue copy() {
+			return new PrimitiveValue(type, value);
+		}
+
+		Object box() {
+			switch(type) {
+			case INT:
+				return (int) value;
+			case FLOAT:
+				return (float) value;
+			case BOOLEAN:
+				return value != 0.0;
+			default:
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the visible entries of all layers without unboxing values
+	 */
+	private class RawEntryIterator implements Iterator<Entry<String, Object>> {
+		private Iterator<Entry<String, Object>> layerIterator = bindings.entrySet().iterator();
+		private Layer layer = null;
+		private Layer nextLayer = parent;
+
+		private Entry<String, Object> next, last;
+
+		@Override
+		public boolean hasNext() {
+			while(next == null) {
+				if(!layerIterator.hasNext()) {
+					if(nextLayer == null) {
+						return false;
+					}
+					layer = nextLayer;
+					nextLayer = layer.parent;
+					layerIterator = layer.bindings.entrySet().iterator();
+					continue;
+				}
+				final Entry<String, Object> entry = layerIterator.next();
+				if(entry.getValue() == REMOVED) {
+					continue;
+				}
+				if(layer == null || !isShadowed(entry.getKey(), layer)) {
+					next = entry;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = null;
+			return last;
+		}
+
+		boolean isLocalEntry() {
+			return layer == null;
+		}
+
+		@Override
+		public void remove() {
+			if(last == null) {
+				throw new IllegalStateException();
+			}
+			if(layer != null) {
+				ScriptBindings.this.remove(last.getKey());
+			} else if(parent != null) {
+				last.setValue(REMOVED);
+			} else {
+				layerIterator.remove();
+			}
+			last = null;
+		}
+	}
+
+	/**
+	 * Iterates over the visible entries of all layers
+	 */
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+		private final RawEntryIterator iterator = new RawEntryIterator();
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			final Entry<String, Object> entry = iterator.next();
+			if(iterator.isLocalEntry() && !(entry.getValue() instanceof PrimitiveValue)) {
+				return entry;
+			}
+			return new BindingEntry(entry.getKey(), unwrap(entry.getValue()));
+		}
+
+		@Override
+		public void remove() {
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * An entry read from a frozen layer or an unboxed value. Setting its value writes to the owning {@link ScriptBindings}.
+	 */
+	private class BindingEntry extends AbstractMap.SimpleEntry<String, Object> {
+		private static final long serialVersionUID = -2164381402926447417L;
+
+		BindingEntry(String key, Object value) {
+			super(key, value);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			ScriptBindings.this.put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+	private final Set<Entry<String, Object>> entrySet = new AbstractSet<Entry<String, Object>>() {
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return ScriptBindings.this.size();
+		}
+
+		@Override
+		public void clear() {
+			ScriptBindings.this.clear();
+		}
+	};
+
+	private final Set<String> keySet = new AbstractSet<String>() {
+		@Override
+		public Iterator<String> iterator() {
+			final RawEntryIterator iterator = new RawEntryIterator();
+			return new Iterator<String>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public String next() {
+					return iterator.next().getKey();
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ScriptBindings.this.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsKey(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if(!containsKey(o)) {
+				return false;
+			}
+			ScriptBindings.this.remove(o);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			ScriptBindings.this.clear();
+		}
+	};
+
+	private final Collection<Object> values = new AbstractCollection<Object>() {
+		@Override
+		public Iterator<Object> iterator() {
+			final EntryIterator iterator = new EntryIterator();
+			return new Iterator<Object>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Object next() {
+					return iterator.next().getValue();
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ScriptBindings.this.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsValue(o);
+		}
+
+		@Override
+		public void clear() {
+			ScriptBindings.this.clear();
+		}
+	};
 }
@@ -63,6 +63,9 @@ public class ScriptExecutionTask<S> implements Runnable {
 
 	@Override
 	public void run() {
+		if(!syncCall) {
+			scriptingEngine.warmupCurrentWorker();
+		}
 		try {
 			if(scriptInvocationListener != null) {
 				if(scriptInvocationListener instanceof InteractiveScriptListener) {
@@ -73,8 +76,17 @@ public class ScriptExecutionTask<S> implements Runnable {
 				}
 			}
 
-			ScriptExecutionResult executionResult = executor.execute(scriptId, script, scriptBindings,
-					scriptInvocationListener != null);
+			final ScriptExecutionResult executionResult;
+			if(scriptInvocationListener == null) {
+				executionResult = executor.execute(scriptId, script, scriptBindings, false);
+			} else {
+				final String[] resultKeys = getResultKeys();
+				if(resultKeys == null) {
+					executionResult = executor.execute(scriptId, script, scriptBindings, true);
+				} else {
+					executionResult = executor.execute(scriptId, script, scriptBindings, resultKeys);
+				}
+			}
 			if (scriptInvocationListener != null) {
 				if (scriptInvocationListener.callOnGameThread()) {
 					scriptingEngine.scriptNotifications.offer(
@@ -127,6 +139,14 @@ public class ScriptExecutionTask<S> implements Runnable {
 		}
 	}
 
+	private String[] getResultKeys() {
+		final String[] result = scriptInvocationListener.getResultKeys();
+		if(result != null) {
+			return result;
+		}
+		return scriptingEngine.getScriptResultKeys(script.getId());
+	}
+
 	public void skipScript() {
 		if (taskFuture.isDone()) {
 			return;
@@ -35,6 +35,32 @@ public interface ScriptExecutor<S> {
 	public ScriptExecutionResult execute(int scriptId, GameScript<S> script, ScriptBindings bindings, boolean returnResult)
 			throws Exception;
 
+	/**
+	 * Executes a script and returns only the requested variables. Implementations should
+	 * override this to avoid reading back variables that are not requested.
+	 *
+	 * @param scriptId The script id
+	 * @param script The script to execute
+	 * @param bindings The variable bindings for the script
+	 * @param resultKeys The variable names to include in the result
+	 * @return The requested variables that are present after execution
+	 * @throws Exception Thrown if the script could not be executed
+	 */
+	public default ScriptExecutionResult execute(int scriptId, GameScript<S> script, ScriptBindings bindings, String[] resultKeys)
+			throws Exception {
+		final ScriptExecutionResult executionResult = execute(scriptId, script, bindings, true);
+		if(executionResult == null) {
+			return null;
+		}
+		final ScriptExecutionResult result = new ScriptExecutionResult(null);
+		for(String resultKey : resultKeys) {
+			if(executionResult.containsKey(resultKey)) {
+				result.put(resultKey, executionResult.get(resultKey));
+			}
+		}
+		return result;
+	}
+
 	public void executeEmbedded(int parentScriptId, int scriptId, GameScript<S> script, EmbeddedScriptInvoker embeddedScriptInvoker, ScriptBindings bindings) throws Exception;
 
 	public void release();
@@ -25,6 +25,10 @@ package org.mini2Dx.miniscript.core;
 
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Common interface for language-specific {@link ScriptExecutor} pools.
  * 
@@ -44,4 +48,61 @@ public interface ScriptExecutorPool<S> {
 	public void release(ScriptExecutor<S> executor);
 	
 	public GameScriptingEngine getGameScriptingEngine();
+
+	/**
+	 * Returns the IDs of scripts that are compiled separately on each thread when first executed
+	 * @return An empty collection if this pool does not compile scripts per thread
+	 */
+	public default Collection<Integer> getPerThreadScriptIds() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Compiles a script for the current thread if it has not yet been compiled on it
+	 * @param scriptId The script ID
+	 * @param scriptBindings Bindings representative of those the script will be invoked with. May be null.
+	 */
+	public default void warmupScript(int scriptId, ScriptBindings scriptBindings) {
+	}
+
+	/**
+	 * Returns the {@link ScriptExecutorQueue} holding this pool's executors
+	 * @return Null if this pool constructs its executors eagerly
+	 */
+	public default ScriptExecutorQueue<S> getExecutorQueue() {
+		return null;
+	}
+
+	/**
+	 * Constructs any executors that have not yet been constructed in parallel on a background thread pool
+	 * @param threadPoolProvider The {@link ThreadPoolProvider} to construct executors on
+	 */
+	public default void prestartExecutors(ThreadPoolProvider threadPoolProvider) {
+		final ScriptExecutorQueue<S> executorQueue = getExecutorQueue();
+		if(executorQueue != null) {
+			executorQueue.prestart(threadPoolProvider);
+		}
+	}
+
+	/**
+	 * Stops executors that have not yet started construction from being constructed in the background
+	 */
+	public default void cancelPrestartExecutors() {
+		final ScriptExecutorQueue<S> executorQueue = getExecutorQueue();
+		if(executorQueue != null) {
+			executorQueue.cancelPrestart();
+		}
+	}
+
+	/**
+	 * Returns a future that completes once all executors in the pool have been constructed
+	 * @return A completed future if this pool constructs its executors eagerly
+	 */
+	public default CompletableFuture<Void> getReadyFuture() {
+		final ScriptExecutorQueue<S> executorQueue = getExecutorQueue();
+		if(executorQueue == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return executorQueue.getReadyFuture();
+	}
 }
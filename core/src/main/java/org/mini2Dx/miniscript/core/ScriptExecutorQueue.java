@@ -0,0 +1,294 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.mini2Dx.miniscript.core.util.ReadWriteBlockingQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the idle {@link ScriptExecutor}s of a {@link ScriptExecutorPool}. Executors are constructed on first
+ * demand up to the pool size, or ahead of time on a background {@link ThreadPoolProvider} via {@link #prestart(ThreadPoolProvider)}.
+ *
+ * A caller that finds no idle executor constructs one itself if the pool size has not been reached,
+ * so callers never wait on construction tasks queued behind them on the same thread pool.
+ */
+public abstract class ScriptExecutorQueue<S> {
+	private final int poolSize;
+	private final BlockingQueue<ScriptExecutor<S>> executors;
+	private final AtomicInteger totalReserved = new AtomicInteger(0);
+	private final AtomicInteger totalConstructed = new AtomicInteger(0);
+	private final Object constructionLock = new Object();
+
+	private volatile CompletableFuture<Void> readyFuture = new CompletableFuture<Void>();
+	private volatile boolean prestartCancelled = false;
+	private ThreadPoolProvider prestartThreadPoolProvider;
+
+	public ScriptExecutorQueue(int poolSize) {
+		super();
+		this.poolSize = poolSize;
+		executors = new ReadWriteBlockingQueue<ScriptExecutor<S>>(poolSize);
+		if(poolSize <= 0) {
+			readyFuture.complete(null);
+		}
+	}
+
+	/**
+	 * Constructs a new {@link ScriptExecutor}. Called at most pool size times between calls to {@link #reset()}.
+	 * @return A new {@link ScriptExecutor}
+	 */
+	protected abstract ScriptExecutor<S> construct();
+
+	/**
+	 * Constructs all remaining executors in parallel on a {@link ThreadPoolProvider}
+	 * @param threadPoolProvider The {@link ThreadPoolProvider} to construct executors on
+	 */
+	public void prestart(ThreadPoolProvider threadPoolProvider) {
+		synchronized(constructionLock) {
+			prestartCancelled = false;
+			prestartThreadPoolProvider = threadPoolProvider;
+		}
+		for(int i = totalReserved.get(); i < poolSize; i++) {
+			threadPoolProvider.submit(new Runnable() {
+				@Override
+				public void run() {
+					if(prestartCancelled || !reserve()) {
+						return;
+					}
+					try {
+						constructReserved(true);
+					} catch (RuntimeException | Error e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stops any executors not yet started by {@link #prestart(ThreadPoolProvider)} from being constructed in the background
+	 */
+	public void cancelPrestart() {
+		synchronized(constructionLock) {
+			prestartCancelled = true;
+			prestartThreadPoolProvider = null;
+		}
+	}
+
+	/**
+	 * Returns an idle executor, constructing one if the pool size has not been reached.
+	 * If all executors are busy but some are still being constructed, waits for their construction to finish.
+	 * @return Null if all executors are in use
+	 * @throws RuntimeException Thrown if constructing an executor for the caller fails
+	 */
+	public ScriptExecutor<S> poll() {
+		while(true) {
+			final ScriptExecutor<S> result = executors.poll();
+			if(result != null) {
+				return result;
+			}
+			if(reserve()) {
+				return constructReserved(false);
+			}
+			try {
+				if(!awaitPendingConstruction()) {
+					//An executor may have been released since the queue was first polled
+					return executors.poll();
+				}
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				return executors.poll();
+			}
+		}
+	}
+
+	/**
+	 * Returns an idle executor, constructing one if the pool size has not been reached,
+	 * otherwise waits for an executor to be released
+	 * @return The allocated executor
+	 * @throws InterruptedException Thrown if the thread is interrupted while waiting
+	 * @throws RuntimeException Thrown if constructing an executor for the caller fails
+	 */
+	public ScriptExecutor<S> take() throws InterruptedException {
+		while(true) {
+			final ScriptExecutor<S> result = executors.poll();
+			if(result != null) {
+				return result;
+			}
+			if(reserve()) {
+				return constructReserved(false);
+			}
+			if(!awaitPendingConstruction()) {
+				//Every executor has been constructed and is in use
+				return executors.take();
+			}
+		}
+	}
+
+	/**
+	 * Returns an executor to the idle queue
+	 * @param executor The executor to release
+	 * @throws InterruptedException Thrown if the thread is interrupted while waiting for queue capacity
+	 */
+	public void put(ScriptExecutor<S> executor) throws InterruptedException {
+		executors.put(executor);
+	}
+
+	/**
+	 * Discards all executors so that new executors are constructed on demand (or in the background if
+	 * {@link #prestart(ThreadPoolProvider)} was previously called). Waits for executors under construction to finish.
+	 * @return False if an executor is currently in use, in which case nothing is discarded
+	 */
+	public boolean reset() {
+		return reset(null);
+	}
+
+	/**
+	 * Discards all executors as per {@link #reset()} and applies a change that executors read on construction.
+	 * The change is only applied if the executors were discarded and no executor is constructed while it is applied.
+	 * @param onReset The change to apply (may be null)
+	 * @return False if an executor is currently in use, in which case nothing is discarded and the change is not applied
+	 */
+	public boolean reset(Runnable onReset) {
+		final ThreadPoolProvider threadPoolProvider;
+		synchronized(constructionLock) {
+			while(totalConstructed.get() < totalReserved.get()) {
+				try {
+					constructionLock.wait();
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+					return false;
+				}
+			}
+
+			final List<ScriptExecutor<S>> idleExecutors = new ArrayList<ScriptExecutor<S>>();
+			ScriptExecutor<S> executor;
+			while((executor = executors.poll()) != null) {
+				idleExecutors.add(executor);
+			}
+			if(idleExecutors.size() < totalConstructed.get()) {
+				executors.addAll(idleExecutors);
+				return false;
+			}
+			if(onReset != null) {
+				onReset.run();
+			}
+			totalReserved.set(0);
+			totalConstructed.set(0);
+			if(readyFuture.isDone() && poolSize > 0) {
+				readyFuture = new CompletableFuture<Void>();
+			}
+			threadPoolProvider = prestartThreadPoolProvider;
+		}
+		if(threadPoolProvider != null) {
+			prestart(threadPoolProvider);
+		}
+		return true;
+	}
+
+	/**
+	 * Reserves a slot to construct an executor in. Reserving under the construction lock ensures no
+	 * construction starts while {@link #reset(Runnable)} is discarding executors.
+	 */
+	private boolean reserve() {
+		synchronized(constructionLock) {
+			if(totalReserved.get() >= poolSize) {
+				return false;
+			}
+			totalReserved.incrementAndGet();
+			return true;
+		}
+	}
+
+	/**
+	 * Waits for all executors currently under construction to finish (or fail) construction
+	 * @return False if no executors were under construction
+	 */
+	private boolean awaitPendingConstruction() throws InterruptedException {
+		synchronized(constructionLock) {
+			if(totalConstructed.get() >= totalReserved.get()) {
+				return false;
+			}
+			while(totalConstructed.get() < totalReserved.get()) {
+				constructionLock.wait();
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Constructs an executor for a reserved slot. Idle executors are queued before being counted as
+	 * constructed so that other threads never observe a constructed executor that is neither idle nor in use.
+	 *
+	 * If construction fails, the slot is released, the ready future completes exceptionally and the failure is
+	 * rethrown to the caller. Callers waiting on construction are woken so they can retry construction themselves.
+	 */
+	private ScriptExecutor<S> constructReserved(boolean idle) {
+		final ScriptExecutor<S> result;
+		try {
+			result = construct();
+		} catch (RuntimeException | Error e) {
+			synchronized(constructionLock) {
+				totalReserved.decrementAndGet();
+				readyFuture.completeExceptionally(e);
+				constructionLock.notifyAll();
+			}
+			throw e;
+		}
+		synchronized(constructionLock) {
+			if(idle) {
+				executors.offer(result);
+			}
+			if(totalConstructed.incrementAndGet() == poolSize) {
+				readyFuture.complete(null);
+			}
+			constructionLock.notifyAll();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a future that completes once all executors have been constructed, or exceptionally if construction fails
+	 * @return A {@link CompletableFuture} completed when the pool is fully constructed
+	 */
+	public CompletableFuture<Void> getReadyFuture() {
+		return readyFuture;
+	}
+
+	/**
+	 * Returns the amount of executors constructed so far
+	 * @return A value between 0 and the pool size
+	 */
+	public int getTotalConstructed() {
+		return totalConstructed.get();
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+}
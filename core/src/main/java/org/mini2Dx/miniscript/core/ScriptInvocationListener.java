@@ -74,6 +74,17 @@ public interface ScriptInvocationListener {
 	 */
 	public void onScriptException(int scriptId, Exception e);
 
+	/**
+	 * Returns the variable names to include in the {@link ScriptExecutionResult}.
+	 * Only these variables are read back from the script runtime after execution.
+	 *
+	 * @return Null if all variables should be included or if the result keys registered
+	 *         via {@link GameScriptingEngine#setScriptResultKeys(int, String...)} should be used
+	 */
+	public default String[] getResultKeys() {
+		return null;
+	}
+
 	/**
 	 * Returns if this {@link ScriptInvocationListener} should be notified on
 	 * the game thread
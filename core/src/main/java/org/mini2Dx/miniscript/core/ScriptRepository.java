@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Scans a directory tree (or zip file) for scripts and compiles them in bulk.
+ * Each script's filepath is its path relative to the repository root using '/' as the separator.
+ */
+public class ScriptRepository implements Closeable {
+	private final Path rootDirectory;
+	private final FileSystem fileSystem;
+	private final String[] fileExtensions;
+
+	/**
+	 * Constructor
+	 * @param rootDirectory The directory to scan for scripts
+	 * @param fileExtensions The file extensions (e.g. ".lua") to include. If none are specified all files are included.
+	 */
+	public ScriptRepository(Path rootDirectory, String... fileExtensions) {
+		this(rootDirectory, null, fileExtensions);
+	}
+
+	private ScriptRepository(Path rootDirectory, FileSystem fileSystem, String... fileExtensions) {
+		super();
+		this.rootDirectory = rootDirectory;
+		this.fileSystem = fileSystem;
+		this.fileExtensions = fileExtensions;
+	}
+
+	/**
+	 * Creates a {@link ScriptRepository} that reads scripts from a zip file.
+	 * The zip file remains open until {@link #close()} is called.
+	 *
+	 * @param zipFile The zip file to scan for scripts
+	 * @param fileExtensions The file extensions (e.g. ".lua") to include. If none are specified all files are included.
+	 * @return A new {@link ScriptRepository}
+	 * @throws IOException Thrown if the zip file could not be opened
+	 */
+	public static ScriptRepository fromZip(Path zipFile, String... fileExtensions) throws IOException {
+		final FileSystem fileSystem = FileSystems.newFileSystem(zipFile, (ClassLoader) null);
+		return new ScriptRepository(fileSystem.getPath("/"), fileSystem, fileExtensions);
+	}
+
+	/**
+	 * Returns all script files within the repository
+	 * @return An empty list if there are no scripts
+	 * @throws IOException Thrown if the repository could not be scanned
+	 */
+	public List<Path> getScriptFiles() throws IOException {
+		final List<Path> result = new ArrayList<Path>();
+		try (Stream<Path> paths = Files.walk(rootDirectory)) {
+			final Iterator<Path> iterator = paths.iterator();
+			while(iterator.hasNext()) {
+				final Path path = iterator.next();
+				if(Files.isRegularFile(path) && isScriptFile(path)) {
+					result.add(path);
+				}
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Reads and compiles all scripts in the repository in parallel
+	 * @param gameScriptingEngine The {@link GameScriptingEngine} to compile the scripts with
+	 * @return A map of filepaths to script IDs
+	 * @throws InsufficientCompilersException Thrown if there are no script compilers available
+	 * @throws IOException Thrown if the repository could not be scanned or a script could not be read
+	 */
+	public Map<String, Integer> compileAll(GameScriptingEngine gameScriptingEngine) throws InsufficientCompilersException, IOException {
+		return gameScriptingEngine.compileScriptFiles(rootDirectory, getScriptFiles());
+	}
+
+	private boolean isScriptFile(Path path) {
+		if(fileExtensions.length == 0) {
+			return true;
+		}
+		final String filename = path.getFileName().toString();
+		for(String fileExtension : fileExtensions) {
+			if(filename.endsWith(fileExtension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the root directory of the repository
+	 * @return The root {@link Path}
+	 */
+	public Path getRootDirectory() {
+		return rootDirectory;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(fileSystem != null) {
+			fileSystem.close();
+		}
+	}
+}
@@ -17,4 +17,12 @@ public interface ThreadPoolProvider {
 
 	void shutdown(boolean interruptThreads);
 
+	/**
+	 * Returns the maximum amount of threads tasks are executed on
+	 * @return -1 if unknown
+	 */
+	public default int getTotalThreads() {
+		return -1;
+	}
+
 }
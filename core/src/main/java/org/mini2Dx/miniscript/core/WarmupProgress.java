@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the progress of {@link GameScriptingEngine#warmup()} and {@link GameScriptingEngine#prewarm(java.util.Collection)}.
+ * Progress can be polled each frame, e.g. to update a loading screen.
+ */
+public class WarmupProgress {
+	private final int totalCompilations;
+	private final AtomicInteger completedCompilations = new AtomicInteger(0);
+	private final CountDownLatch completedThreads;
+
+	WarmupProgress(int totalThreads, int totalScripts) {
+		super();
+		this.totalCompilations = totalThreads * totalScripts;
+		this.completedThreads = new CountDownLatch(totalThreads);
+	}
+
+	void onCompilationsCompleted(int compilations) {
+		completedCompilations.addAndGet(compilations);
+	}
+
+	void onThreadCompleted() {
+		completedThreads.countDown();
+	}
+
+	/**
+	 * Returns the total amount of per-thread script compilations
+	 * @return The amount of scripts multiplied by the amount of threads
+	 */
+	public int getTotalCompilations() {
+		return totalCompilations;
+	}
+
+	/**
+	 * Returns the amount of per-thread script compilations completed so far. Compilations that failed are not counted.
+	 * @return The amount of completed compilations
+	 */
+	public int getCompletedCompilations() {
+		return Math.min(completedCompilations.get(), totalCompilations);
+	}
+
+	/**
+	 * Returns the warmup progress
+	 * @return A value between 0 and 1
+	 */
+	public float getProgress() {
+		if(totalCompilations == 0) {
+			return 1f;
+		}
+		return getCompletedCompilations() / (float) totalCompilations;
+	}
+
+	/**
+	 * Returns if the warmup has completed on all threads
+	 * @return True if complete
+	 */
+	public boolean isComplete() {
+		return completedThreads.getCount() == 0;
+	}
+
+	/**
+	 * Blocks until the warmup has completed
+	 * @throws InterruptedException Thrown if the current thread is interrupted
+	 */
+	public void waitForCompletion() throws InterruptedException {
+		completedThreads.await();
+	}
+
+	/**
+	 * Blocks until the warmup has completed or the timeout elapses
+	 * @param timeout The maximum time to wait
+	 * @param unit The {@link TimeUnit} of the timeout
+	 * @return True if the warmup completed
+	 * @throws InterruptedException Thrown if the current thread is interrupted
+	 */
+	public boolean waitForCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+		return completedThreads.await(timeout, unit);
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.mini2Dx.miniscript.core.threadpool.ScriptWorkerThread;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks which worker threads still need to compile scripts for a {@link GameScriptingEngine#prewarm(java.util.Collection)}.
+ * Each worker is warmed by the next task it runs so that no worker waits on another.
+ */
+class WorkerWarmup {
+	private final List<Integer> scriptIds;
+	private final ScriptBindings scriptBindings;
+	private final WarmupProgress progress;
+	private final int totalThreads;
+	private final Set<Long> warmedWorkers = new HashSet<Long>();
+
+	WorkerWarmup(List<Integer> scriptIds, ScriptBindings scriptBindings, int totalThreads) {
+		super();
+		this.scriptIds = scriptIds;
+		this.scriptBindings = scriptBindings;
+		this.totalThreads = totalThreads;
+		this.progress = new WarmupProgress(totalThreads, scriptIds.size());
+	}
+
+	/**
+	 * Compiles the scripts on the current thread if it has not been warmed up yet
+	 * @param scriptExecutorPool The {@link ScriptExecutorPool} to compile the scripts with
+	 * @return True if all threads have now been warmed up
+	 */
+	boolean warmupCurrentWorker(ScriptExecutorPool<?> scriptExecutorPool) {
+		final long workerId = getCurrentWorkerId();
+		synchronized (warmedWorkers) {
+			if(warmedWorkers.size() >= totalThreads) {
+				return true;
+			}
+			if(!warmedWorkers.add(workerId)) {
+				return false;
+			}
+		}
+		for(int i = 0; i < scriptIds.size(); i++) {
+			try {
+				scriptExecutorPool.warmupScript(scriptIds.get(i), scriptBindings);
+				progress.onCompilationsCompleted(1);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		progress.onThreadCompleted();
+		return progress.isComplete();
+	}
+
+	WarmupProgress getProgress() {
+		return progress;
+	}
+
+	private static long getCurrentWorkerId() {
+		final int workerOrdinal = ScriptWorkerThread.getCurrentWorkerOrdinal();
+		//Per-thread scripts are stored by worker ordinal, fall back to thread ID for other thread types
+		return workerOrdinal >= 0 ? workerOrdinal : -1L - Thread.currentThread().getId();
+	}
+}
@@ -32,19 +32,21 @@ public class DefaultThreadPoolProvider implements ThreadPoolProvider {
 	private static final String THREAD_NAME_PREFIX = "miniscript-thread-";
 	private static final AtomicInteger THREAD_ID = new AtomicInteger(0);
 
+	private final WorkerOrdinals workerOrdinals = new WorkerOrdinals();
 	private final ScheduledExecutorService executorService;
+	private final int totalThreads;
 
 	public DefaultThreadPoolProvider() {
 		this(Runtime.getRuntime().availableProcessors() + 1);
 	}
 
 	public DefaultThreadPoolProvider(int maxConcurrentScripts) {
-		executorService = Executors.newScheduledThreadPool(
-				Math.min(maxConcurrentScripts + 1, Runtime.getRuntime().availableProcessors() * 2),
+		totalThreads = Math.min(maxConcurrentScripts + 1, Runtime.getRuntime().availableProcessors() * 2);
+		executorService = Executors.newScheduledThreadPool(totalThreads,
 				new ThreadFactory() {
 					@Override
 					public Thread newThread(Runnable r) {
-						return new Thread(r, THREAD_NAME_PREFIX + THREAD_ID.getAndIncrement());
+						return new ScriptWorkerThread(r, THREAD_NAME_PREFIX + THREAD_ID.getAndIncrement(), workerOrdinals);
 					}
 				});
 	}
@@ -64,6 +66,11 @@ public class DefaultThreadPoolProvider implements ThreadPoolProvider {
 		return executorService.schedule(command, delay, unit);
 	}
 
+	@Override
+	public int getTotalThreads() {
+		return totalThreads;
+	}
+
 	@Override
 	public void shutdown(boolean interruptThreads) {
 		if(interruptThreads) {
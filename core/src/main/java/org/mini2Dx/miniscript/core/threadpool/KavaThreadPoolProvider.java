@@ -36,6 +36,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class KavaThreadPoolProvider implements Runnable, ThreadPoolProvider {
 	private final AtomicBoolean running = new AtomicBoolean(true);
+	private final WorkerOrdinals workerOrdinals = new WorkerOrdinals();
 	private final Thread [] threads;
 
 	private final ScheduledTaskQueue scheduledTaskQueue = new ScheduledTaskQueue();
@@ -47,7 +48,7 @@ public class KavaThreadPoolProvider implements Runnable, ThreadPoolProvider {
 	public KavaThreadPoolProvider(int maxConcurrentScripts) {
 		threads = new Thread[maxConcurrentScripts];
 		for(int i = 0; i < maxConcurrentScripts; i++) {
-			threads[i] = new Thread(this);
+			threads[i] = new ScriptWorkerThread(this, workerOrdinals);
 		}
 		for(int i = 0; i < maxConcurrentScripts; i++) {
 			threads[i].start();
@@ -84,6 +85,11 @@ public class KavaThreadPoolProvider implements Runnable, ThreadPoolProvider {
 		return future;
 	}
 
+	@Override
+	public int getTotalThreads() {
+		return threads.length;
+	}
+
 	@Override
 	public void shutdown(boolean interruptThreads) {
 		running.set(false);
@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core.threadpool;
+
+/**
+ * A {@link Thread} created by a miniscript thread pool. While running, each instance holds a
+ * small worker ordinal, unique within its {@link WorkerOrdinals}, that can be used as an index
+ * into per-worker storage. Ordinals are allocated when the thread starts running and released
+ * once it terminates, so threads that are never started do not hold an ordinal.
+ */
+public class ScriptWorkerThread extends Thread {
+	/**
+	 * The ordinals for worker threads constructed without a {@link WorkerOrdinals} of their own
+	 */
+	private static final WorkerOrdinals SHARED_WORKER_ORDINALS = new WorkerOrdinals();
+
+	private final WorkerOrdinals workerOrdinals;
+	private int workerOrdinal = -1;
+
+	public ScriptWorkerThread(Runnable target) {
+		this(target, SHARED_WORKER_ORDINALS);
+	}
+
+	public ScriptWorkerThread(Runnable target, String name) {
+		this(target, name, SHARED_WORKER_ORDINALS);
+	}
+
+	public ScriptWorkerThread(Runnable target, WorkerOrdinals workerOrdinals) {
+		super(target);
+		this.workerOrdinals = workerOrdinals;
+	}
+
+	public ScriptWorkerThread(Runnable target, String name, WorkerOrdinals workerOrdinals) {
+		super(target, name);
+		this.workerOrdinals = workerOrdinals;
+	}
+
+	@Override
+	public void run() {
+		workerOrdinal = workerOrdinals.allocate();
+		try {
+			super.run();
+		} finally {
+			final int workerOrdinal = this.workerOrdinal;
+			this.workerOrdinal = -1;
+			workerOrdinals.release(workerOrdinal);
+		}
+	}
+
+	/**
+	 * Returns the worker ordinal of this thread. Only reliable when called from this thread.
+	 * @return -1 if this thread is not running
+	 */
+	public int getWorkerOrdinal() {
+		return workerOrdinal;
+	}
+
+	public WorkerOrdinals getWorkerOrdinals() {
+		return workerOrdinals;
+	}
+
+	/**
+	 * Returns the worker ordinal of the current thread
+	 * @return -1 if the current thread is not a {@link ScriptWorkerThread}
+	 */
+	public static int getCurrentWorkerOrdinal() {
+		final Thread currentThread = Thread.currentThread();
+		if(currentThread instanceof ScriptWorkerThread) {
+			return ((ScriptWorkerThread) currentThread).workerOrdinal;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core.threadpool;
+
+/**
+ * Allocates small worker ordinals to the {@link ScriptWorkerThread}s of a thread pool.
+ * Ordinals are allocated when a thread starts running and re-used once it terminates,
+ * so the highest ordinal is bounded by the amount of threads alive at once.
+ */
+public class WorkerOrdinals {
+	private int[] releasedOrdinals = new int[8];
+	private int totalReleasedOrdinals = 0;
+	private int nextOrdinal = 0;
+
+	/**
+	 * Allocates the lowest available ordinal
+	 * @return The allocated ordinal
+	 */
+	public synchronized int allocate() {
+		if(totalReleasedOrdinals > 0) {
+			totalReleasedOrdinals--;
+			return releasedOrdinals[totalReleasedOrdinals];
+		}
+		return nextOrdinal++;
+	}
+
+	/**
+	 * Releases an ordinal so that it can be allocated to another thread
+	 * @param ordinal The ordinal to release
+	 */
+	public synchronized void release(int ordinal) {
+		if(totalReleasedOrdinals == releasedOrdinals.length) {
+			final int[] result = new int[releasedOrdinals.length * 2];
+			System.arraycopy(releasedOrdinals, 0, result, 0, releasedOrdinals.length);
+			releasedOrdinals = result;
+		}
+		releasedOrdinals[totalReleasedOrdinals] = ordinal;
+		totalReleasedOrdinals++;
+	}
+
+	/**
+	 * Returns the amount of ordinals that have ever been handed out at once
+	 * @return The highest allocated ordinal + 1
+	 */
+	public synchronized int getCapacity() {
+		return nextOrdinal;
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core.util;
+
+import org.mini2Dx.miniscript.core.threadpool.ScriptWorkerThread;
+import org.mini2Dx.miniscript.core.threadpool.WorkerOrdinals;
+
+/**
+ * Stores a value per thread. Values for {@link ScriptWorkerThread}s are stored in a dense array
+ * indexed by worker ordinal so that lookups do not require locking or boxing.
+ * The array is bound to the {@link WorkerOrdinals} of the first worker thread to set a value.
+ * Values for all other threads are stored in a {@link ThreadLocal} and released with their thread.
+ *
+ * Note: A value is handed to the next {@link ScriptWorkerThread} that is assigned the same
+ * worker ordinal once its previous thread has terminated.
+ */
+public class WorkerLocal<T> {
+	private static final int INITIAL_CAPACITY = 8;
+
+	private final ThreadLocal<T> foreignThreadValues = new ThreadLocal<T>();
+	private volatile WorkerOrdinals workerOrdinals;
+	private volatile Object[] workerValues = new Object[INITIAL_CAPACITY];
+
+	/**
+	 * Returns the value for the current thread
+	 * @return Null if no value has been set for the current thread
+	 */
+	@SuppressWarnings("unchecked")
+	public T get() {
+		final int workerOrdinal = getBoundWorkerOrdinal();
+		if(workerOrdinal < 0) {
+			return foreignThreadValues.get();
+		}
+		final Object[] workerValues = this.workerValues;
+		if(workerOrdinal >= workerValues.length) {
+			return null;
+		}
+		return (T) workerValues[workerOrdinal];
+	}
+
+	/**
+	 * Returns the amount of worker ordinals that currently have a value
+	 * @return 0 if no {@link ScriptWorkerThread} has set a value
+	 */
+	public int getTotalWorkerValues() {
+		final Object[] workerValues = this.workerValues;
+		int result = 0;
+		for(int i = 0; i < workerValues.length; i++) {
+			if(workerValues[i] != null) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the value for the current thread
+	 * @param value The value to set
+	 */
+	public void set(T value) {
+		final Thread currentThread = Thread.currentThread();
+		if(workerOrdinals == null && currentThread instanceof ScriptWorkerThread) {
+			synchronized (this) {
+				if(workerOrdinals == null) {
+					workerOrdinals = ((ScriptWorkerThread) currentThread).getWorkerOrdinals();
+				}
+			}
+		}
+		final int workerOrdinal = getBoundWorkerOrdinal();
+		if(workerOrdinal < 0) {
+			foreignThreadValues.set(value);
+			return;
+		}
+		synchronized (this) {
+			Object[] workerValues = this.workerValues;
+			if(workerOrdinal >= workerValues.length) {
+				final Object[] result = new Object[Math.max(workerOrdinal + 1, workerValues.length * 2)];
+				System.arraycopy(workerValues, 0, result, 0, workerValues.length);
+				workerValues = result;
+			}
+			workerValues[workerOrdinal] = value;
+			//Publish the array so the value is visible to a later thread with the same ordinal
+			this.workerValues = workerValues;
+		}
+	}
+
+	/**
+	 * Returns the worker ordinal of the current thread if it belongs to the {@link WorkerOrdinals} this instance is bound to
+	 * @return -1 if the value of the current thread is not stored by worker ordinal
+	 */
+	private int getBoundWorkerOrdinal() {
+		final Thread currentThread = Thread.currentThread();
+		if(!(currentThread instanceof ScriptWorkerThread)) {
+			return -1;
+		}
+		final ScriptWorkerThread workerThread = (ScriptWorkerThread) currentThread;
+		if(workerThread.getWorkerOrdinals() != workerOrdinals) {
+			return -1;
+		}
+		return workerThread.getWorkerOrdinal();
+	}
+}
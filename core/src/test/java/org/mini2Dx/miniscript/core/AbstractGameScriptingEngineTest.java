@@ -23,7 +23,16 @@
  */
 package org.mini2Dx.miniscript.core;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -222,6 +231,97 @@ public abstract class AbstractGameScriptingEngineTest {
 		Assert.assertEquals(false, gameFuture.isScriptSkipped());
 	}
 
+	@Test
+	public void testInvokeScriptWithResultKeys() throws Exception {
+		final AtomicInteger totalResults = new AtomicInteger(-1);
+
+		final int expectedScriptId = scriptingEngine.compileScript(getDefaultScript());
+		scriptingEngine.invokeCompiledScript(expectedScriptId, scriptBindings, new ScriptInvocationListener() {
+
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				if(!checkExpectedScriptResults(executionResult)) {
+					scriptResult.set(ScriptResult.INCORRECT_VARIABLES);
+				} else {
+					scriptResult.set(ScriptResult.SUCCESS);
+				}
+				totalResults.set(executionResult.size());
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+				scriptResult.set(ScriptResult.SKIPPED);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+				scriptResult.set(ScriptResult.EXCEPTION);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public String[] getResultKeys() {
+				return new String[] { "stringValue", "booleanValue", "intValue" };
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		});
+		while(!scriptExecuted.get()) {
+			scriptingEngine.update(1f);
+		}
+		Assert.assertEquals(ScriptResult.SUCCESS, scriptResult.get());
+		Assert.assertEquals(3, totalResults.get());
+	}
+
+	@Test
+	public void testInvokeScriptWithScriptResultKeys() throws Exception {
+		final AtomicInteger totalResults = new AtomicInteger(-1);
+		final AtomicReference<Object> intValue = new AtomicReference<Object>();
+
+		final int expectedScriptId = scriptingEngine.compileScript(getDefaultScript());
+		scriptingEngine.setScriptResultKeys(expectedScriptId, "intValue");
+		scriptingEngine.invokeCompiledScript(expectedScriptId, scriptBindings, new ScriptInvocationListener() {
+
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				intValue.set(executionResult.get("intValue"));
+				totalResults.set(executionResult.size());
+				scriptResult.set(ScriptResult.SUCCESS);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+				scriptResult.set(ScriptResult.SKIPPED);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+				scriptResult.set(ScriptResult.EXCEPTION);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		});
+		while(!scriptExecuted.get()) {
+			scriptingEngine.update(1f);
+		}
+		Assert.assertEquals(ScriptResult.SUCCESS, scriptResult.get());
+		Assert.assertEquals(1, totalResults.get());
+		Assert.assertEquals(101, ((Number) intValue.get()).intValue());
+	}
+
 	@Test
 	public void testInvokeScriptBeginNotificationOnGameThread() throws Exception {
 		final int expectedScriptId = scriptingEngine.compileScript(getDefaultScript());
@@ -835,6 +935,110 @@ public abstract class AbstractGameScriptingEngineTest {
 		Assert.assertEquals(0, scriptingEngine.runningFutures.size());
 	}
 
+	@Test
+	public void testCompileScripts() throws Exception {
+		final Map<String, String> scripts = new HashMap<String, String>();
+		scripts.put(getDefaultScriptFilepath(), getDefaultScript());
+		scripts.put(getInvokeWithinScriptFilepath(), getInvokeWithScript());
+		scripts.put(getNestedInvokeWithinScriptFilepath(), getNestedInvokeWithScript());
+		scripts.put("waitForCompletion", getWaitForCompletionScript());
+
+		final Map<String, Integer> scriptIds = scriptingEngine.compileScripts(scripts);
+		Assert.assertEquals(scripts.size(), scriptIds.size());
+		Assert.assertEquals(scripts.size(), new HashSet<Integer>(scriptIds.values()).size());
+		for(String filepath : scripts.keySet()) {
+			Assert.assertEquals(scriptingEngine.getCompiledScriptId(filepath), scriptIds.get(filepath).intValue());
+		}
+
+		final int scriptId = scriptingEngine.compileScriptAsync(getDefaultScriptFilepath(), getDefaultScript()).get(20, TimeUnit.SECONDS);
+		Assert.assertEquals(scriptIds.get(getDefaultScriptFilepath()).intValue(), scriptId);
+
+		final String asyncFilepath = "async/" + getDefaultScriptFilepath();
+		final int asyncScriptId = scriptingEngine.compileScriptAsync(asyncFilepath, getDefaultScript()).get(20, TimeUnit.SECONDS);
+		Assert.assertFalse(scriptIds.containsValue(asyncScriptId));
+		Assert.assertEquals(asyncScriptId, scriptingEngine.getCompiledScriptId(asyncFilepath));
+		assertScriptSucceeds(asyncScriptId);
+	}
+
+	@Test
+	public void testCompileScriptStreams() throws Exception {
+		final Map<String, InputStream> scripts = new HashMap<String, InputStream>();
+		scripts.put(getDefaultScriptFilepath(), new ByteArrayInputStream(getDefaultScript().getBytes(StandardCharsets.UTF_8)));
+		scripts.put(getInvokeWithinScriptFilepath(), new ByteArrayInputStream(getInvokeWithScript().getBytes(StandardCharsets.UTF_8)));
+
+		final Map<String, Integer> scriptIds = scriptingEngine.compileScriptStreams(scripts);
+		Assert.assertEquals(scripts.size(), new HashSet<Integer>(scriptIds.values()).size());
+		for(String filepath : scripts.keySet()) {
+			Assert.assertEquals(scriptingEngine.getCompiledScriptId(filepath), scriptIds.get(filepath).intValue());
+		}
+		assertScriptSucceeds(scriptIds.get(getDefaultScriptFilepath()));
+	}
+
+	@Test
+	public void testCompileScriptFiles() throws Exception {
+		final Path rootDirectory = Files.createTempDirectory("miniscript");
+		final Path scriptDirectory = Files.createDirectories(rootDirectory.resolve("quest"));
+		final Path defaultScriptFile = scriptDirectory.resolve(getDefaultScriptFilepath());
+		final Path invokeWithinScriptFile = scriptDirectory.resolve(getInvokeWithinScriptFilepath());
+		try {
+			Files.write(defaultScriptFile, getDefaultScript().getBytes(StandardCharsets.UTF_8));
+			Files.write(invokeWithinScriptFile, getInvokeWithScript().getBytes(StandardCharsets.UTF_8));
+
+			final Map<String, Integer> scriptIds = scriptingEngine.compileScriptFiles(rootDirectory,
+					Arrays.asList(defaultScriptFile, invokeWithinScriptFile));
+			Assert.assertEquals(2, new HashSet<Integer>(scriptIds.values()).size());
+
+			final String defaultFilepath = "quest/" + getDefaultScriptFilepath();
+			Assert.assertEquals(scriptingEngine.getCompiledScriptId(defaultFilepath), scriptIds.get(defaultFilepath).intValue());
+			Assert.assertEquals(scriptingEngine.getCompiledScriptId("quest/" + getInvokeWithinScriptFilepath()),
+					scriptIds.get("quest/" + getInvokeWithinScriptFilepath()).intValue());
+			assertScriptSucceeds(scriptIds.get(defaultFilepath));
+		} finally {
+			Files.deleteIfExists(defaultScriptFile);
+			Files.deleteIfExists(invokeWithinScriptFile);
+			Files.deleteIfExists(scriptDirectory);
+			Files.deleteIfExists(rootDirectory);
+		}
+	}
+
+	private void assertScriptSucceeds(final int expectedScriptId) {
+		scriptingEngine.invokeCompiledScript(expectedScriptId, scriptBindings, new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				if(scriptId != expectedScriptId) {
+					scriptResult.set(ScriptResult.INCORRECT_SCRIPT_ID);
+				} else if(!checkExpectedScriptResults(executionResult)) {
+					scriptResult.set(ScriptResult.INCORRECT_VARIABLES);
+				} else {
+					scriptResult.set(ScriptResult.SUCCESS);
+				}
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+				scriptResult.set(ScriptResult.SKIPPED);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+				scriptResult.set(ScriptResult.EXCEPTION);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return true;
+			}
+		});
+		while(!scriptExecuted.get()) {
+			scriptingEngine.update(1f);
+		}
+		Assert.assertEquals(ScriptResult.SUCCESS, scriptResult.get());
+	}
+
 	@Test
 	public void testInvokeEmbeddedScript() throws Exception {
 		if(!scriptingEngine.isEmbeddedSynchronousScriptSupported()) {
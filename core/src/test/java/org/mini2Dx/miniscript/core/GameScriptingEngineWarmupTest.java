@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+import org.mini2Dx.miniscript.core.dummy.DummyScriptExecutorPool;
+import org.mini2Dx.miniscript.core.threadpool.ScriptWorkerThread;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for {@link GameScriptingEngine#warmup()}
+ */
+public class GameScriptingEngineWarmupTest {
+	private GameScriptingEngine scriptingEngine;
+
+	@After
+	public void teardown() {
+		scriptingEngine.dispose(true);
+	}
+
+	@Test(timeout = 10000L)
+	public void testWarmupAllThreads() throws Exception {
+		scriptingEngine = new DummyGameScriptingEngine(2, new FixedThreadPoolProvider(3, 3));
+		final int scriptId = scriptingEngine.compileScript("script", "content");
+
+		final WarmupProgress warmupProgress = scriptingEngine.warmup();
+		Assert.assertTrue(warmupProgress.waitForCompletion(5L, TimeUnit.SECONDS));
+		Assert.assertEquals(3, warmupProgress.getCompletedCompilations());
+		Assert.assertEquals(3, getScriptExecutorPool().getWarmedThreads(scriptId).size());
+	}
+
+	@Test(timeout = 10000L)
+	public void testWarmupWithUnknownThreadCount() throws Exception {
+		//The engine assumes maxConcurrentScripts + 1 threads but the pool only has 1
+		scriptingEngine = new DummyGameScriptingEngine(2, new FixedThreadPoolProvider(1, -1));
+		final int scriptId = scriptingEngine.compileScript("script", "content");
+
+		final WarmupProgress warmupProgress = scriptingEngine.warmup();
+		Assert.assertEquals(3, warmupProgress.getTotalCompilations());
+
+		//Scripts must still run even though the warmup can never complete
+		final AtomicBoolean scriptExecuted = new AtomicBoolean(false);
+		scriptingEngine.invokeCompiledScript(scriptId, new ScriptBindings(), new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		});
+		while(!scriptExecuted.get()) {
+			scriptingEngine.update(1f);
+			Thread.sleep(1L);
+		}
+		Assert.assertEquals(1, getScriptExecutorPool().getWarmedThreads(scriptId).size());
+		Assert.assertEquals(1, warmupProgress.getCompletedCompilations());
+		Assert.assertFalse(warmupProgress.isComplete());
+	}
+
+	private DummyScriptExecutorPool getScriptExecutorPool() {
+		return (DummyScriptExecutorPool) scriptingEngine.getScriptExecutorPool();
+	}
+
+	private static class FixedThreadPoolProvider implements ThreadPoolProvider {
+		private final ScheduledExecutorService executorService;
+		private final int reportedThreads;
+
+		public FixedThreadPoolProvider(int totalThreads, int reportedThreads) {
+			this.reportedThreads = reportedThreads;
+			executorService = Executors.newScheduledThreadPool(totalThreads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					return new ScriptWorkerThread(r);
+				}
+			});
+		}
+
+		@Override
+		public Future<?> submit(Runnable task) {
+			return executorService.submit(task);
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+			return executorService.scheduleAtFixedRate(command, initialDelay, period, unit);
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+			return executorService.schedule(command, delay, unit);
+		}
+
+		@Override
+		public int getTotalThreads() {
+			return reportedThreads;
+		}
+
+		@Override
+		public void shutdown(boolean interruptThreads) {
+			executorService.shutdownNow();
+		}
+	}
+}
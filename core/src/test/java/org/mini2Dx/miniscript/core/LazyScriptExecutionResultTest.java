@@ -0,0 +1,81 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LazyScriptExecutionResult}
+ */
+public class LazyScriptExecutionResultTest {
+	private final AtomicInteger totalConversions = new AtomicInteger();
+	private LazyScriptExecutionResult<String> executionResult;
+
+	@Before
+	public void setUp() {
+		totalConversions.set(0);
+		executionResult = new LazyScriptExecutionResult<String>() {
+			@Override
+			protected void convert(String key, String value) {
+				totalConversions.incrementAndGet();
+				putInt(key, Integer.parseInt(value));
+			}
+		};
+		executionResult.putUnconverted("x", "12");
+		executionResult.putUnconverted("y", "13");
+	}
+
+	@Test
+	public void testConvertsOnlyReadValues() {
+		Assert.assertEquals(true, executionResult.containsKey("x"));
+		Assert.assertEquals(0, totalConversions.get());
+
+		Assert.assertEquals(12, executionResult.get("x"));
+		Assert.assertEquals(12, executionResult.getInt("x"));
+		Assert.assertEquals(1, totalConversions.get());
+	}
+
+	@Test
+	public void testConvertsAllValuesForIteration() {
+		Assert.assertEquals(2, executionResult.size());
+		Assert.assertEquals(2, totalConversions.get());
+		Assert.assertEquals(true, executionResult.keySet().contains("y"));
+		Assert.assertEquals(13, executionResult.getInt("y"));
+		Assert.assertEquals(2, totalConversions.get());
+	}
+
+	@Test
+	public void testPutReplacesUnconvertedValue() {
+		Assert.assertEquals(12, executionResult.put("x", "replaced"));
+		Assert.assertEquals("replaced", executionResult.get("x"));
+
+		executionResult.putInt("y", 14);
+		Assert.assertEquals(14, executionResult.getInt("y"));
+		Assert.assertEquals(1, totalConversions.get());
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ScriptBindings}
+ */
+public class ScriptBindingsTest {
+	private ScriptBindings scriptBindings;
+
+	@Before
+	public void setUp() {
+		scriptBindings = new ScriptBindings();
+		scriptBindings.put("stringValue", "hello");
+		scriptBindings.put("intValue", 7);
+	}
+
+	@Test
+	public void testChildContainsParentBindings() {
+		final ScriptBindings child = scriptBindings.createChild();
+		Assert.assertEquals(2, child.size());
+		Assert.assertEquals("hello", child.get("stringValue"));
+		Assert.assertEquals(7, child.get("intValue"));
+		Assert.assertEquals(true, child.containsKey("intValue"));
+		Assert.assertEquals(true, child.containsValue("hello"));
+	}
+
+	@Test
+	public void testChildWritesNotVisibleToParent() {
+		final ScriptBindings child = scriptBindings.createChild();
+		Assert.assertEquals("hello", child.put("stringValue", "world"));
+		child.put("newValue", true);
+		child.remove("intValue");
+
+		Assert.assertEquals("world", child.get("stringValue"));
+		Assert.assertEquals(true, child.get("newValue"));
+		Assert.assertEquals(false, child.containsKey("intValue"));
+		Assert.assertEquals(2, child.size());
+
+		Assert.assertEquals("hello", scriptBindings.get("stringValue"));
+		Assert.assertEquals(false, scriptBindings.containsKey("newValue"));
+		Assert.assertEquals(7, scriptBindings.get("intValue"));
+		Assert.assertEquals(2, scriptBindings.size());
+	}
+
+	@Test
+	public void testParentWritesNotVisibleToChild() {
+		final ScriptBindings child = scriptBindings.createChild();
+		scriptBindings.put("stringValue", "world");
+		scriptBindings.remove("intValue");
+		scriptBindings.put("newValue", true);
+
+		Assert.assertEquals("hello", child.get("stringValue"));
+		Assert.assertEquals(7, child.get("intValue"));
+		Assert.assertEquals(false, child.containsKey("newValue"));
+		Assert.assertEquals(2, child.size());
+	}
+
+	@Test
+	public void testEntrySetMergesLayers() {
+		final ScriptBindings child = scriptBindings.createChild();
+		child.put("stringValue", "world");
+		child.put("newValue", true);
+
+		final Map<String, Object> expected = new HashMap<String, Object>();
+		expected.put("stringValue", "world");
+		expected.put("intValue", 7);
+		expected.put("newValue", true);
+		Assert.assertEquals(expected, new HashMap<String, Object>(child));
+		Assert.assertEquals(expected.keySet(), child.keySet());
+	}
+
+	@Test
+	public void testEntrySetRemoval() {
+		final ScriptBindings child = scriptBindings.createChild();
+		child.put("newValue", true);
+
+		final Iterator<String> iterator = child.keySet().iterator();
+		while(iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+		Assert.assertEquals(true, child.isEmpty());
+		Assert.assertEquals(2, scriptBindings.size());
+	}
+
+	@Test
+	public void testEntrySetValueOnSharedEntry() {
+		final ScriptBindings child = scriptBindings.createChild();
+		for(Map.Entry<String, Object> entry : child.entrySet()) {
+			if(entry.getKey().equals("intValue")) {
+				entry.setValue(8);
+			}
+		}
+		Assert.assertEquals(8, child.get("intValue"));
+		Assert.assertEquals(7, scriptBindings.get("intValue"));
+	}
+
+	@Test
+	public void testDeepChildChain() {
+		ScriptBindings current = scriptBindings;
+		for(int i = 0; i < 32; i++) {
+			current.put("value" + i, i);
+			current = current.createChild();
+		}
+		Assert.assertEquals(34, current.size());
+		for(int i = 0; i < 32; i++) {
+			Assert.assertEquals(i, current.get("value" + i));
+		}
+		Assert.assertEquals("hello", current.get("stringValue"));
+	}
+
+	@Test
+	public void testDuplicate() {
+		final ScriptBindings child = scriptBindings.createChild();
+		child.put("newValue", true);
+		final ScriptBindings duplicate = child.duplicate();
+		Assert.assertEquals(3, duplicate.size());
+		Assert.assertEquals(new HashMap<String, Object>(child), new HashMap<String, Object>(duplicate));
+	}
+
+	@Test
+	public void testPrimitiveValues() {
+		scriptBindings.putInt("x", 12);
+		scriptBindings.putFloat("y", 1.5f);
+		scriptBindings.putDouble("z", 2.25);
+		scriptBindings.putBoolean("visible", true);
+
+		Assert.assertEquals(ScriptBindingType.INT, scriptBindings.getType("x"));
+		Assert.assertEquals(ScriptBindingType.FLOAT, scriptBindings.getType("y"));
+		Assert.assertEquals(ScriptBindingType.DOUBLE, scriptBindings.getType("z"));
+		Assert.assertEquals(ScriptBindingType.BOOLEAN, scriptBindings.getType("visible"));
+		Assert.assertEquals(ScriptBindingType.OBJECT, scriptBindings.getType("stringValue"));
+		Assert.assertEquals(null, scriptBindings.getType("missing"));
+
+		Assert.assertEquals(12, scriptBindings.getInt("x"));
+		Assert.assertEquals(1.5f, scriptBindings.getFloat("y"), 0.0001f);
+		Assert.assertEquals(2.25, scriptBindings.getDouble("z"), 0.0001);
+		Assert.assertEquals(true, scriptBindings.getBoolean("visible"));
+
+		Assert.assertEquals(12, scriptBindings.get("x"));
+		Assert.assertEquals(1.5f, scriptBindings.get("y"));
+		Assert.assertEquals(2.25, scriptBindings.get("z"));
+		Assert.assertEquals(true, scriptBindings.get("visible"));
+	}
+
+	@Test
+	public void testPrimitiveGettersConvertNumbers() {
+		Assert.assertEquals(7.0, scriptBindings.getDouble("intValue"), 0.0001);
+		Assert.assertEquals(7f, scriptBindings.getFloat("intValue"), 0.0001f);
+		Assert.assertEquals(3, scriptBindings.getInt("missing", 3));
+		Assert.assertEquals(true, scriptBindings.getBoolean("missing", true));
+	}
+
+	@Test
+	public void testPrimitiveValuesInChild() {
+		scriptBindings.putInt("x", 12);
+		final ScriptBindings child = scriptBindings.createChild();
+		child.putInt("x", 13);
+		Assert.assertEquals(13, child.getInt("x"));
+		Assert.assertEquals(12, scriptBindings.getInt("x"));
+
+		scriptBindings.putInt("x", 14);
+		Assert.assertEquals(13, child.getInt("x"));
+		Assert.assertEquals(14, scriptBindings.getInt("x"));
+	}
+
+	@Test
+	public void testPrimitiveValuesInDuplicate() {
+		scriptBindings.putInt("x", 12);
+		final ScriptBindings duplicate = scriptBindings.duplicate();
+		duplicate.putInt("x", 13);
+		Assert.assertEquals(ScriptBindingType.INT, duplicate.getType("x"));
+		Assert.assertEquals(13, duplicate.getInt("x"));
+		Assert.assertEquals(12, scriptBindings.getInt("x"));
+	}
+
+	@Test
+	public void testPrimitiveValuesInEntrySet() {
+		scriptBindings.putInt("x", 12);
+		for(Map.Entry<String, Object> entry : scriptBindings.entrySet()) {
+			if(entry.getKey().equals("x")) {
+				Assert.assertEquals(12, entry.getValue());
+				entry.setValue("twelve");
+			}
+		}
+		Assert.assertEquals("twelve", scriptBindings.get("x"));
+		Assert.assertEquals(ScriptBindingType.OBJECT, scriptBindings.getType("x"));
+	}
+}
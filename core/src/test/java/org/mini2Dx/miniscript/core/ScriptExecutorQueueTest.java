@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.dummy.DummyScript;
+import org.mini2Dx.miniscript.core.dummy.DummyScriptExecutor;
+import org.mini2Dx.miniscript.core.threadpool.DefaultThreadPoolProvider;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ScriptExecutorQueue}
+ */
+public class ScriptExecutorQueueTest {
+	private static final int POOL_SIZE = 3;
+
+	private final AtomicInteger totalConstructed = new AtomicInteger();
+	private ScriptExecutorQueue<DummyScript> executorQueue;
+
+	@Before
+	public void setUp() {
+		totalConstructed.set(0);
+		executorQueue = new ScriptExecutorQueue<DummyScript>(POOL_SIZE) {
+			@Override
+			protected ScriptExecutor<DummyScript> construct() {
+				totalConstructed.incrementAndGet();
+				return new DummyScriptExecutor(null);
+			}
+		};
+	}
+
+	@Test
+	public void testConstructsOnDemand() throws Exception {
+		Assert.assertEquals(0, totalConstructed.get());
+
+		final ScriptExecutor<DummyScript> executor = executorQueue.take();
+		Assert.assertEquals(1, totalConstructed.get());
+		executorQueue.put(executor);
+		Assert.assertSame(executor, executorQueue.take());
+		Assert.assertEquals(1, totalConstructed.get());
+		Assert.assertFalse(executorQueue.getReadyFuture().isDone());
+	}
+
+	@Test
+	public void testPollReturnsNullWhenAllExecutorsInUse() {
+		for(int i = 0; i < POOL_SIZE; i++) {
+			Assert.assertNotNull(executorQueue.poll());
+		}
+		Assert.assertNull(executorQueue.poll());
+		Assert.assertEquals(POOL_SIZE, totalConstructed.get());
+		Assert.assertTrue(executorQueue.getReadyFuture().isDone());
+	}
+
+	@Test
+	public void testPrestart() throws Exception {
+		final DefaultThreadPoolProvider threadPoolProvider = new DefaultThreadPoolProvider(POOL_SIZE);
+		executorQueue.prestart(threadPoolProvider);
+		executorQueue.getReadyFuture().get(10, TimeUnit.SECONDS);
+		threadPoolProvider.shutdown(false);
+
+		Assert.assertEquals(POOL_SIZE, totalConstructed.get());
+		Assert.assertEquals(POOL_SIZE, executorQueue.getTotalConstructed());
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		final AtomicInteger totalResets = new AtomicInteger(0);
+		final Runnable onReset = new Runnable() {
+			@Override
+			public void run() {
+				totalResets.incrementAndGet();
+			}
+		};
+		final ScriptExecutor<DummyScript> executor = executorQueue.take();
+		Assert.assertFalse(executorQueue.reset(onReset));
+		Assert.assertEquals(0, totalResets.get());
+
+		executorQueue.put(executor);
+		Assert.assertTrue(executorQueue.reset(onReset));
+		Assert.assertEquals(1, totalResets.get());
+		Assert.assertEquals(0, executorQueue.getTotalConstructed());
+		Assert.assertNotSame(executor, executorQueue.take());
+		Assert.assertEquals(2, totalConstructed.get());
+	}
+
+	@Test(timeout = 10000L)
+	public void testConstructionFailure() throws Exception {
+		final ScriptExecutorQueue<DummyScript> failingQueue = createFailingQueue();
+
+		try {
+			failingQueue.take();
+			Assert.fail("Expected construction failure");
+		} catch (IllegalStateException e) {
+		}
+		try {
+			failingQueue.poll();
+			Assert.fail("Expected construction failure");
+		} catch (IllegalStateException e) {
+		}
+		Assert.assertTrue(failingQueue.getReadyFuture().isCompletedExceptionally());
+		Assert.assertEquals(0, failingQueue.getTotalConstructed());
+	}
+
+	@Test(timeout = 10000L)
+	public void testPrestartConstructionFailure() throws Exception {
+		final ScriptExecutorQueue<DummyScript> failingQueue = createFailingQueue();
+		final DefaultThreadPoolProvider threadPoolProvider = new DefaultThreadPoolProvider(1);
+		failingQueue.prestart(threadPoolProvider);
+
+		try {
+			failingQueue.getReadyFuture().get();
+			Assert.fail("Expected construction failure");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		threadPoolProvider.shutdown(false);
+
+		try {
+			failingQueue.take();
+			Assert.fail("Expected construction failure");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	private ScriptExecutorQueue<DummyScript> createFailingQueue() {
+		return new ScriptExecutorQueue<DummyScript>(1) {
+			@Override
+			protected ScriptExecutor<DummyScript> construct() {
+				throw new IllegalStateException("Executor construction failed");
+			}
+		};
+	}
+}
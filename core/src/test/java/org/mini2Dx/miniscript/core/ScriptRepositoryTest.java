@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Unit tests for {@link ScriptRepository}
+ */
+public class ScriptRepositoryTest {
+	private Path rootDirectory;
+	private GameScriptingEngine scriptingEngine;
+
+	@Before
+	public void setUp() throws IOException {
+		rootDirectory = Files.createTempDirectory("miniscript");
+		writeScript("default.txt");
+		writeScript("mods/mod1/quest.txt");
+		writeScript("mods/mod2/quest.txt");
+		writeScript("mods/readme.md");
+
+		scriptingEngine = new DummyGameScriptingEngine();
+	}
+
+	@After
+	public void teardown() throws IOException {
+		scriptingEngine.dispose();
+
+		final List<Path> paths = new ArrayList<Path>();
+		try (Stream<Path> stream = Files.walk(rootDirectory)) {
+			final Iterator<Path> iterator = stream.iterator();
+			while(iterator.hasNext()) {
+				paths.add(iterator.next());
+			}
+		}
+		Collections.reverse(paths);
+		for(Path path : paths) {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testCompileDirectory() throws Exception {
+		final ScriptRepository scriptRepository = new ScriptRepository(rootDirectory, ".txt");
+		Assert.assertEquals(3, scriptRepository.getScriptFiles().size());
+
+		final Map<String, Integer> scriptIds = scriptRepository.compileAll(scriptingEngine);
+		assertCompiled(scriptIds);
+	}
+
+	@Test
+	public void testCompileZip() throws Exception {
+		final Path zipFile = rootDirectory.resolve("scripts.zip");
+		try (ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+			for(Path path : new ScriptRepository(rootDirectory, ".txt").getScriptFiles()) {
+				outputStream.putNextEntry(new ZipEntry(rootDirectory.relativize(path).toString().replace('\\', '/')));
+				outputStream.write(Files.readAllBytes(path));
+				outputStream.closeEntry();
+			}
+		}
+
+		try (ScriptRepository scriptRepository = ScriptRepository.fromZip(zipFile, ".txt")) {
+			final Map<String, Integer> scriptIds = scriptRepository.compileAll(scriptingEngine);
+			assertCompiled(scriptIds);
+		}
+	}
+
+	private void assertCompiled(Map<String, Integer> scriptIds) {
+		Assert.assertEquals(3, scriptIds.size());
+		for(String filepath : new String[] { "default.txt", "mods/mod1/quest.txt", "mods/mod2/quest.txt" }) {
+			Assert.assertTrue(scriptIds.containsKey(filepath));
+			Assert.assertEquals(scriptingEngine.getCompiledScriptId(filepath), scriptIds.get(filepath).intValue());
+		}
+	}
+
+	private void writeScript(String filepath) throws IOException {
+		final Path path = rootDirectory.resolve(filepath);
+		Files.createDirectories(path.getParent());
+		try (OutputStream outputStream = Files.newOutputStream(path)) {
+			outputStream.write(("script " + filepath).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+}
@@ -26,12 +26,21 @@ package org.mini2Dx.miniscript.core.dummy;
 import org.mini2Dx.miniscript.core.ClasspathScriptProvider;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
 import org.mini2Dx.miniscript.core.ScriptExecutorPool;
+import org.mini2Dx.miniscript.core.ThreadPoolProvider;
 
 /**
  * An implementation of {@link GameScriptingEngine} for unit tests
  */
 public class DummyGameScriptingEngine extends GameScriptingEngine {
 
+	public DummyGameScriptingEngine() {
+		super();
+	}
+
+	public DummyGameScriptingEngine(int maxConcurrentScripts, ThreadPoolProvider threadPoolProvider) {
+		super(maxConcurrentScripts, threadPoolProvider);
+	}
+
 	@Override
 	protected ScriptExecutorPool<?> createScriptExecutorPool(ClasspathScriptProvider classpathScriptProvider, int poolSize, boolean sandboxing) {
 		return new DummyScriptExecutorPool(this, poolSize);
@@ -23,7 +23,11 @@
  */
 package org.mini2Dx.miniscript.core.dummy;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,12 +35,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.mini2Dx.miniscript.core.GameScript;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.GlobalGameScript;
 import org.mini2Dx.miniscript.core.ScriptBindings;
 import org.mini2Dx.miniscript.core.ScriptExecutionTask;
 import org.mini2Dx.miniscript.core.ScriptExecutor;
 import org.mini2Dx.miniscript.core.ScriptExecutorPool;
 import org.mini2Dx.miniscript.core.ScriptInvocationListener;
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
+import org.mini2Dx.miniscript.core.exception.NoSuchScriptException;
 import org.mini2Dx.miniscript.core.exception.ScriptExecutorUnavailableException;
 
 /**
@@ -46,6 +52,7 @@ public class DummyScriptExecutorPool implements ScriptExecutorPool<DummyScript>
 	private final Map<Integer, GameScript<DummyScript>> scripts = new ConcurrentHashMap<Integer, GameScript<DummyScript>>();
 	private final Map<String, Integer> filepathsToScriptIds = new ConcurrentHashMap<String, Integer>();
 	private final Map<Integer, String> scriptIdsToFilepaths = new ConcurrentHashMap<Integer, String>();
+	private final Map<Integer, Set<Thread>> warmedThreads = new ConcurrentHashMap<Integer, Set<Thread>>();
 	private final BlockingQueue<ScriptExecutor<DummyScript>> executors;
 	private final GameScriptingEngine gameScriptingEngine;
 
@@ -60,13 +67,9 @@ public class DummyScriptExecutorPool implements ScriptExecutorPool<DummyScript>
 
 	@Override
 	public int preCompileScript(String filepath, String scriptContent) throws InsufficientCompilersException {
-		ScriptExecutor<DummyScript> executor = executors.poll();
-		if (executor == null) {
-			throw new InsufficientCompilersException();
-		}
-		GameScript<DummyScript> script = executor.compile(scriptContent);
-		executor.release();
+		GameScript<DummyScript> script = new GlobalGameScript<DummyScript>(new DummyScript(scriptContent));
 		scripts.put(script.getId(), script);
+		warmedThreads.put(script.getId(), Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>()));
 		filepathsToScriptIds.put(filepath, script.getId());
 		scriptIdsToFilepaths.put(script.getId(), filepath);
 		return script.getId();
@@ -74,7 +77,7 @@ public class DummyScriptExecutorPool implements ScriptExecutorPool<DummyScript>
 
 	@Override
 	public int getCompiledScriptId(String filepath) {
-		return filepathsToScriptIds.get(filepath);
+		return filepathsToScriptIds.getOrDefault(filepath, -1);
 	}
 
 	@Override
@@ -111,6 +114,29 @@ public class DummyScriptExecutorPool implements ScriptExecutorPool<DummyScript>
 		return null;
 	}
 
+	@Override
+	public Collection<Integer> getPerThreadScriptIds() {
+		return new ArrayList<Integer>(scripts.keySet());
+	}
+
+	@Override
+	public void warmupScript(int scriptId, ScriptBindings scriptBindings) {
+		final Set<Thread> threads = warmedThreads.get(scriptId);
+		if(threads == null) {
+			throw new NoSuchScriptException(scriptId);
+		}
+		threads.add(Thread.currentThread());
+	}
+
+	/**
+	 * Returns the threads a script has been warmed up on
+	 * @param scriptId The script ID
+	 * @return The warmed up threads
+	 */
+	public Set<Thread> getWarmedThreads(int scriptId) {
+		return warmedThreads.get(scriptId);
+	}
+
 	@Override
 	public GameScriptingEngine getGameScriptingEngine() {
 		return gameScriptingEngine;
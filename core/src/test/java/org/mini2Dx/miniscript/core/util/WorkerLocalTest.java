@@ -0,0 +1,101 @@
+/**
+ * Copyright 2020 Viridian Software Ltd.
+ */
+package org.mini2Dx.miniscript.core.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.threadpool.ScriptWorkerThread;
+import org.mini2Dx.miniscript.core.threadpool.WorkerOrdinals;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class WorkerLocalTest {
+
+	@Test
+	public void testForeignThread() {
+		final WorkerLocal<String> workerLocal = new WorkerLocal<>();
+		Assert.assertEquals(-1, ScriptWorkerThread.getCurrentWorkerOrdinal());
+		Assert.assertNull(workerLocal.get());
+		workerLocal.set("test");
+		Assert.assertEquals("test", workerLocal.get());
+		Assert.assertEquals(0, workerLocal.getTotalWorkerValues());
+	}
+
+	@Test
+	public void testWorkerThreads() throws InterruptedException {
+		final WorkerLocal<String> workerLocal = new WorkerLocal<>();
+		workerLocal.set("foreign");
+
+		final ScriptWorkerThread [] threads = new ScriptWorkerThread[20];
+		final AtomicReference<String> failure = new AtomicReference<>();
+		//Keep all threads alive at once so that no ordinal is re-used
+		final CountDownLatch startLatch = new CountDownLatch(threads.length);
+		for(int i = 0; i < threads.length; i++) {
+			final String value = "worker" + i;
+			threads[i] = new ScriptWorkerThread(() -> {
+				startLatch.countDown();
+				try {
+					startLatch.await();
+				} catch (InterruptedException e) {
+					failure.set("Interrupted");
+				}
+				if(workerLocal.get() != null) {
+					failure.set("Value present before set");
+				}
+				workerLocal.set(value);
+				if(!value.equals(workerLocal.get())) {
+					failure.set("Expected " + value + " but was " + workerLocal.get());
+				}
+			});
+		}
+		for(int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for(int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		Assert.assertNull(failure.get());
+		Assert.assertEquals("foreign", workerLocal.get());
+		Assert.assertTrue(workerLocal.getTotalWorkerValues() > 0);
+	}
+
+	@Test
+	public void testOrdinalsAllocatedOnlyWhileRunning() throws InterruptedException {
+		final WorkerOrdinals workerOrdinals = new WorkerOrdinals();
+		final ScriptWorkerThread unstartedThread = new ScriptWorkerThread(() -> {}, workerOrdinals);
+		Assert.assertEquals(-1, unstartedThread.getWorkerOrdinal());
+
+		final AtomicReference<Integer> ordinal = new AtomicReference<>();
+		for(int i = 0; i < 3; i++) {
+			final ScriptWorkerThread thread = new ScriptWorkerThread(() -> ordinal.set(ScriptWorkerThread.getCurrentWorkerOrdinal()), workerOrdinals);
+			thread.start();
+			thread.join();
+			Assert.assertEquals(0, ordinal.get().intValue());
+			Assert.assertEquals(-1, thread.getWorkerOrdinal());
+		}
+		Assert.assertEquals(1, workerOrdinals.getCapacity());
+	}
+
+	@Test
+	public void testWorkerThreadsOfOtherPools() throws InterruptedException {
+		final WorkerLocal<String> workerLocal = new WorkerLocal<>();
+		final AtomicReference<String> result = new AtomicReference<>();
+
+		final ScriptWorkerThread thread1 = new ScriptWorkerThread(() -> workerLocal.set("pool1"), new WorkerOrdinals());
+		thread1.start();
+		thread1.join();
+
+		//Ordinal 0 of another pool must not see the value of ordinal 0 of the first pool
+		final ScriptWorkerThread thread2 = new ScriptWorkerThread(() -> {
+			result.set(workerLocal.get());
+			workerLocal.set("pool2");
+		}, new WorkerOrdinals());
+		thread2.start();
+		thread2.join();
+
+		Assert.assertNull(result.get());
+		Assert.assertEquals(1, workerLocal.getTotalWorkerValues());
+	}
+}
@@ -24,8 +24,13 @@
 package org.mini2Dx.miniscript.gradle;
 
 import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
 import org.mini2Dx.miniscript.gradle.compiler.CompilerConfig;
+import org.mini2Dx.miniscript.gradle.compiler.KotlinScriptCompiler;
 import org.mini2Dx.miniscript.gradle.compiler.LuaScriptCompiler;
+import org.mini2Dx.miniscript.gradle.compiler.PythonScriptCompiler;
 import org.mini2Dx.miniscript.gradle.compiler.ScriptCompiler;
 
 import java.io.IOException;
@@ -35,10 +40,15 @@ import java.util.Map;
 
 public class MiniscriptCompileTask extends MiniscriptTask {
 	private final Map<String, ScriptCompiler> compilers = new HashMap<String, ScriptCompiler>();
+	private final DirectoryProperty pythonCacheDir;
 
 	public MiniscriptCompileTask() {
 		super();
+		pythonCacheDir = getProject().getLayout().directoryProperty();
+
 		compilers.put(".lua", new LuaScriptCompiler(getProject()));
+		compilers.put(".py", new PythonScriptCompiler(pythonCacheDir));
+		compilers.put(".kts", new KotlinScriptCompiler(getProject()));
 	}
 
 	@Override
@@ -47,10 +57,16 @@ public class MiniscriptCompileTask extends MiniscriptTask {
 		compileDirectory(compilerConfig, inputFiles);
 	}
 
+	@Optional
+	@OutputDirectory
+	public DirectoryProperty getPythonCacheDir() {
+		return pythonCacheDir;
+	}
+
 	private Map<String, Object> compileDirectory(CompilerConfig compilerConfig, List<CompilerInputFile> inputFiles) throws IOException {
 		final Map<String, Object> outputClasses = new HashMap<String, Object> ();
 		for(CompilerInputFile inputFile : inputFiles) {
-			compilerConfig.setInputScriptFile(inputFile);
+			compilerConfig.setInputScriptFile(inputFile, getScriptPath(inputFile));
 			outputClasses.put(inputFile.getInputScriptRelativeFilename(), compileFile(compilerConfig));
 		}
 		return outputClasses;
@@ -32,6 +32,7 @@ public class MiniscriptExtension {
 	private final Property<Boolean> recursive;
 	private final Property<String> outputClass;
 	private final DirectoryProperty scriptsDir;
+	private final DirectoryProperty pythonCacheDir;
 
 	public MiniscriptExtension(Project project) {
 		super();
@@ -39,6 +40,7 @@ public class MiniscriptExtension {
 		recursive = project.getObjects().property(Boolean.class);
 		outputClass = project.getObjects().property(String.class);
 		scriptsDir = project.getLayout().directoryProperty();
+		pythonCacheDir = project.getLayout().directoryProperty();
 	}
 
 	public Property<Boolean> getPrefixWithRoot() {
@@ -49,6 +51,10 @@ public class MiniscriptExtension {
 		return scriptsDir;
 	}
 
+	public DirectoryProperty getPythonCacheDir() {
+		return pythonCacheDir;
+	}
+
 	public Property<Boolean> getRecursive() {
 		return recursive;
 	}
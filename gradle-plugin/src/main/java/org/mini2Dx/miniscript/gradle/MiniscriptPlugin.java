@@ -67,6 +67,7 @@ public class MiniscriptPlugin implements Plugin<Project> {
 				miniscriptCompileTask.getRecursive().set(extension.getRecursive());
 				miniscriptCompileTask.getScriptsDir().set(extension.getScriptsDir());
 				miniscriptCompileTask.getOutputClass().set(extension.getOutputClass());
+				miniscriptCompileTask.getPythonCacheDir().set(extension.getPythonCacheDir());
 
 				miniscriptCompileTask.setOutputDir(mainSourceSet.getJava().getOutputDir());
 			}
@@ -32,6 +32,7 @@ import org.mini2Dx.miniscript.core.GeneratedClasspathScriptProvider;
 import javax.lang.model.element.Modifier;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,11 +44,17 @@ public class MiniscriptStubTask extends MiniscriptTask {
 	protected void process(List<CompilerInputFile> inputFiles) throws IOException {
 		packageDir = new File(outputDir, outputPackage.replace('.', '/'));
 
+		final List<CompilerInputFile> classpathInputFiles = new ArrayList<CompilerInputFile>();
 		for(CompilerInputFile inputFile : inputFiles) {
+			if(inputFile.getInputScriptFileSuffix().equals(".py")) {
+				//Python scripts are loaded from the compiled script cache, not the classpath
+				continue;
+			}
+			classpathInputFiles.add(inputFile);
 			generateScriptStub(inputFile);
 		}
 
-		generateScriptProvider(inputFiles);
+		generateScriptProvider(classpathInputFiles);
 	}
 
 	private void generateScriptStub(CompilerInputFile inputFile) throws IOException {
@@ -75,13 +82,13 @@ public class MiniscriptStubTask extends MiniscriptTask {
 		for(CompilerInputFile inputFile : inputFiles) {
 			final String scriptPackage = inputFile.getOutputPackageName(outputPackage);
 			final ClassName scriptClassName = ClassName.get(scriptPackage, inputFile.getOutputClassName());
-			final String path;
-			if(getPrefixWithRoot().getOrElse(false)) {
-				path = scriptsDir.get().getAsFile().getName() + "/" + inputFile.getInputScriptRelativeFilename().replace('\\', '/');
+			final String path = getScriptPath(inputFile);
+			if(inputFile.getInputScriptFileSuffix().equals(".kts")) {
+				//Compiled Kotlin scripts are constructed with their bindings on each invocation
+				methodBuilder = methodBuilder.addStatement("result.put($S, $T.class)", path, scriptClassName);
 			} else {
-				path =  inputFile.getInputScriptRelativeFilename().replace('\\', '/');
+				methodBuilder = methodBuilder.addStatement("result.put($S, new $T())", path, scriptClassName);
 			}
-			methodBuilder = methodBuilder.addStatement("result.put($S, new $T())", path, scriptClassName);
 		}
 
 		methodBuilder = methodBuilder.addStatement("return result");
@@ -78,6 +78,18 @@ public abstract class MiniscriptTask extends DefaultTask {
 
 	protected abstract void process(List<CompilerInputFile> inputFiles) throws IOException;
 
+	/**
+	 * Returns the path a script is looked up by at runtime
+	 * @param inputFile The script file
+	 * @return The script path with '/' separators, prefixed with the scripts directory if prefixWithRoot is set
+	 */
+	protected String getScriptPath(CompilerInputFile inputFile) {
+		if(prefixWithRoot.getOrElse(false)) {
+			return scriptsDir.get().getAsFile().getName() + "/" + inputFile.getInputScriptRelativeFilename().replace('\\', '/');
+		}
+		return inputFile.getInputScriptRelativeFilename().replace('\\', '/');
+	}
+
 	@InputDirectory
 	public DirectoryProperty getScriptsDir() {
 		return scriptsDir;
@@ -34,6 +34,7 @@ public class CompilerConfig {
 	private final File outputRootDirectory;
 
 	private CompilerInputFile inputScriptFile;
+	private String inputScriptPath;
 
 	private String outputPackage, outputPackageAsPath;
 	private File packageDir;
@@ -47,7 +48,12 @@ public class CompilerConfig {
 	}
 
 	public void setInputScriptFile(CompilerInputFile inputScriptFile) {
+		setInputScriptFile(inputScriptFile, inputScriptFile.getInputScriptRelativeFilename().replace('\\', '/'));
+	}
+
+	public void setInputScriptFile(CompilerInputFile inputScriptFile, String inputScriptPath) {
 		this.inputScriptFile  = inputScriptFile;
+		this.inputScriptPath = inputScriptPath;
 
 		this.outputPackage = inputScriptFile.getOutputPackageName(outputRootPackage);
 		this.outputPackageAsPath = outputPackage.replace('.', '/') + "/";
@@ -70,6 +76,14 @@ public class CompilerConfig {
 		return inputScriptFile;
 	}
 
+	/**
+	 * Returns the path the current script is looked up by at runtime
+	 * @return The normalised script path
+	 */
+	public String getInputScriptPath() {
+		return inputScriptPath;
+	}
+
 	public File getOutputClassFile(String qualifiedClassName) {
 		final String className;
 		if(qualifiedClassName.contains("/")) {
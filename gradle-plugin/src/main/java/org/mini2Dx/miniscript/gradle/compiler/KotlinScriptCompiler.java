@@ -0,0 +1,182 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Thomas Cashman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.gradle.compiler;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import kotlin.jvm.JvmClassMappingKt;
+import kotlin.script.templates.standard.ScriptTemplateWithBindings;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.tasks.SourceSet;
+import org.jetbrains.kotlin.backend.common.output.OutputFile;
+import org.jetbrains.kotlin.cli.common.CLIConfigurationKeys;
+import org.jetbrains.kotlin.cli.common.config.ContentRootsKt;
+import org.jetbrains.kotlin.cli.common.messages.MessageRenderer;
+import org.jetbrains.kotlin.cli.common.messages.PrintingMessageCollector;
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinToJVMBytecodeCompiler;
+import org.jetbrains.kotlin.cli.jvm.config.JvmContentRootsKt;
+import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.config.CommonConfigurationKeys;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.config.JVMConfigurationKeys;
+import org.jetbrains.kotlin.name.Name;
+import org.jetbrains.kotlin.psi.KtScript;
+import org.jetbrains.kotlin.script.KotlinScriptDefinitionFromAnnotatedTemplate;
+import org.jetbrains.kotlin.script.util.ContextKt;
+import org.jetbrains.kotlin.utils.PathUtil;
+import org.mini2Dx.miniscript.gradle.CompilerInputFile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles each .kts script to a class extending {@link ScriptTemplateWithBindings} so that
+ * KotlinScriptExecutorPool can load it from the classpath without the Kotlin compiler
+ */
+public class KotlinScriptCompiler implements ScriptCompiler {
+	private static final String MODULE_NAME = "miniscript";
+
+	private final Project project;
+
+	private List<File> classpath;
+	private File sourceDir;
+
+	public KotlinScriptCompiler(Project project) {
+		super();
+		this.project = project;
+	}
+
+	/**
+	 * Constructor for compiling scripts outside of a Gradle project
+	 * @param classpath The classpath to compile scripts against
+	 * @param sourceDir The directory to write the intermediate script sources to
+	 */
+	public KotlinScriptCompiler(List<File> classpath, File sourceDir) {
+		super();
+		this.project = null;
+		this.classpath = new ArrayList<File>(classpath);
+		this.sourceDir = sourceDir;
+	}
+
+	@Override
+	public Object compileFile(CompilerConfig compilerConfig) throws IOException {
+		if(classpath == null) {
+			classpath = new ArrayList<File>(ContextKt.classpathFromClassloader(KotlinScriptCompiler.class.getClassLoader()));
+
+			final JavaPluginConvention javaConvention = project.getConvention().getPlugin(JavaPluginConvention.class);
+			final SourceSet mainSourceSet = javaConvention.getSourceSets().getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+			classpath.addAll(mainSourceSet.getCompileClasspath().getFiles());
+
+			sourceDir = new File(project.getBuildDir(), "tmp/miniscript/kotlin");
+		}
+
+		final CompilerInputFile inputFile = compilerConfig.getInputScriptFile();
+		final String scriptClassName = inputFile.getOutputClassName();
+
+		final File sourceFile = new File(sourceDir, compilerConfig.getOutputPackageAsPath() + scriptClassName + ".kts");
+		sourceFile.getParentFile().mkdirs();
+		final String scriptContent = new String(Files.readAllBytes(inputFile.getInputScriptFile().toPath()), StandardCharsets.UTF_8);
+		Files.write(sourceFile.toPath(), insertPackageDeclaration(compilerConfig.getOutputPackage(), scriptContent)
+				.getBytes(StandardCharsets.UTF_8));
+
+		final CompilerConfiguration configuration = new CompilerConfiguration();
+		configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY,
+				new PrintingMessageCollector(System.err, MessageRenderer.PLAIN_RELATIVE_PATHS, false));
+		configuration.put(CommonConfigurationKeys.MODULE_NAME, MODULE_NAME);
+		JvmContentRootsKt.addJvmSdkRoots(configuration, PathUtil.getJdkClassesRootsFromCurrentJre());
+		JvmContentRootsKt.addJvmClasspathRoots(configuration, classpath);
+		ContentRootsKt.addKotlinSourceRoot(configuration, sourceFile.getAbsolutePath());
+		configuration.add(JVMConfigurationKeys.SCRIPT_DEFINITIONS, new KotlinScriptDefinitionFromAnnotatedTemplate(
+				JvmClassMappingKt.getKotlinClass(ScriptTemplateWithBindings.class),
+				Collections.<String, Object>emptyMap(), Collections.<File>emptyList()) {
+			@Override
+			public Name getScriptName(KtScript script) {
+				return Name.identifier(scriptClassName);
+			}
+		});
+		configuration.put(JVMConfigurationKeys.DISABLE_STANDARD_SCRIPT_DEFINITION, true);
+
+		final Disposable disposable = Disposer.newDisposable();
+		try {
+			final KotlinCoreEnvironment environment = KotlinCoreEnvironment.createForProduction(disposable,
+					configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+			final GenerationState generationState = KotlinToJVMBytecodeCompiler.INSTANCE.analyzeAndGenerate(environment);
+			if(generationState == null) {
+				throw new GradleException("Failed to compile " + inputFile.getInputScriptRelativeFilename());
+			}
+
+			for(OutputFile outputFile : generationState.getFactory().asList()) {
+				if(!outputFile.getRelativePath().endsWith(".class")) {
+					continue;
+				}
+				final String className = outputFile.getRelativePath().substring(0, outputFile.getRelativePath().lastIndexOf('.'));
+				final FileOutputStream outputStream = new FileOutputStream(compilerConfig.getOutputClassFile(className));
+				outputStream.write(outputFile.asByteArray());
+				outputStream.close();
+			}
+		} finally {
+			Disposer.dispose(disposable);
+		}
+		return null;
+	}
+
+	/**
+	 * Scripts are written without a package declaration so the output package is inserted on the first line
+	 * after any leading file annotations, keeping line numbers in compiler errors identical to the original script
+	 * @param packageName The package to declare
+	 * @param scriptContent The script source
+	 * @return The script source with a package declaration
+	 */
+	static String insertPackageDeclaration(String packageName, String scriptContent) {
+		final String packageDeclaration = "package " + packageName + "; ";
+		boolean blockComment = false;
+		int lineStart = 0;
+		while(lineStart < scriptContent.length()) {
+			int lineEnd = scriptContent.indexOf('\n', lineStart);
+			if(lineEnd < 0) {
+				lineEnd = scriptContent.length();
+			}
+			final String line = scriptContent.substring(lineStart, lineEnd).trim();
+			if(blockComment) {
+				blockComment = !line.contains("*/");
+			} else if(line.startsWith("/*")) {
+				blockComment = !line.contains("*/");
+			} else if(!line.isEmpty() && !line.startsWith("//") && !line.startsWith("#!") && !line.startsWith("@file:")) {
+				return scriptContent.substring(0, lineStart) + packageDeclaration + scriptContent.substring(lineStart);
+			}
+			lineStart = lineEnd + 1;
+		}
+		return scriptContent + (scriptContent.endsWith("\n") ? "" : "\n") + packageDeclaration;
+	}
+}
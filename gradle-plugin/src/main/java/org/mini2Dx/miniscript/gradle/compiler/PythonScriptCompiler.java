@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 Thomas Cashman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.gradle.compiler;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.mini2Dx.miniscript.gradle.CompilerInputFile;
+import org.mini2Dx.miniscript.python.PythonCompiledScriptCache;
+import org.python.core.PySystemState;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Fills a {@link PythonCompiledScriptCache} directory with the bytecode of each script
+ */
+public class PythonScriptCompiler implements ScriptCompiler {
+	private final DirectoryProperty cacheDir;
+
+	private PythonCompiledScriptCache compiledScriptCache;
+
+	public PythonScriptCompiler(DirectoryProperty cacheDir) {
+		super();
+		this.cacheDir = cacheDir;
+	}
+
+	@Override
+	public Object compileFile(CompilerConfig compilerConfig) throws IOException {
+		if(!cacheDir.isPresent()) {
+			throw new GradleException("miniscript pythonCacheDir must be set to compile .py files at build time.");
+		}
+		if(compiledScriptCache == null) {
+			PySystemState.initialize();
+			compiledScriptCache = new PythonCompiledScriptCache(cacheDir.get().getAsFile().toPath());
+		}
+
+		final CompilerInputFile inputFile = compilerConfig.getInputScriptFile();
+		final String scriptContent = new String(Files.readAllBytes(inputFile.getInputScriptFile().toPath()), StandardCharsets.UTF_8);
+		//Key by the same path the script is compiled with at runtime
+		compiledScriptCache.store(compilerConfig.getInputScriptPath(), scriptContent);
+		return null;
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.gradle.compiler;
+
+import org.jetbrains.kotlin.script.util.ContextKt;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mini2Dx.miniscript.core.GeneratedClasspathScriptProvider;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+import org.mini2Dx.miniscript.core.ScriptInvocationListener;
+import org.mini2Dx.miniscript.gradle.CompilerInputFile;
+import org.mini2Dx.miniscript.kotlin.KotlinGameScriptingEngine;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link KotlinScriptCompiler}
+ */
+public class KotlinScriptCompilerTest {
+	private static final String ROOT_PACKAGE = "org.mini2Dx.miniscript.generated";
+	private static final String SCRIPT_PATH = "quest/reward.kts";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testCompiledScriptExecutesFromClasspath() throws Exception {
+		final File scriptsDir = temporaryFolder.newFolder("scripts");
+		final File scriptFile = new File(scriptsDir, SCRIPT_PATH);
+		scriptFile.getParentFile().mkdirs();
+		try (InputStream inputStream = KotlinScriptCompilerTest.class.getResourceAsStream("/kotlin/" + SCRIPT_PATH)) {
+			Files.copy(inputStream, scriptFile.toPath());
+		}
+
+		final File outputDir = temporaryFolder.newFolder("classes");
+		final CompilerConfig compilerConfig = new CompilerConfig(ROOT_PACKAGE, outputDir);
+		compilerConfig.setInputScriptFile(new CompilerInputFile(scriptsDir, scriptFile));
+		new KotlinScriptCompiler(ContextKt.classpathFromClassloader(KotlinScriptCompilerTest.class.getClassLoader()),
+				temporaryFolder.newFolder("src")).compileFile(compilerConfig);
+		Assert.assertTrue(compilerConfig.getOutputClassFile("reward").exists());
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { outputDir.toURI().toURL() },
+				KotlinScriptCompilerTest.class.getClassLoader())) {
+			final Class<?> scriptClass = classLoader.loadClass(ROOT_PACKAGE + ".quest.reward");
+
+			final KotlinGameScriptingEngine scriptingEngine = new KotlinGameScriptingEngine(new GeneratedClasspathScriptProvider() {
+				@Override
+				public Map<String, Object> getGeneratedScripts() {
+					final Map<String, Object> result = new HashMap<String, Object>();
+					result.put(SCRIPT_PATH, scriptClass);
+					return result;
+				}
+			}, 1);
+			final int scriptId = scriptingEngine.getCompiledScriptId(SCRIPT_PATH);
+			Assert.assertTrue(scriptId > -1);
+
+			final ScriptBindings bindings = new ScriptBindings();
+			bindings.put("stringValue", "hello");
+			bindings.put("intValue", 1);
+
+			final AtomicReference<ScriptExecutionResult> result = new AtomicReference<ScriptExecutionResult>();
+			final AtomicReference<Exception> exception = new AtomicReference<Exception>();
+			scriptingEngine.invokeCompiledScriptSync(1, scriptId, bindings, new ScriptInvocationListener() {
+				@Override
+				public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+					result.set(executionResult);
+				}
+
+				@Override
+				public void onScriptSkipped(int scriptId) {
+				}
+
+				@Override
+				public void onScriptException(int scriptId, Exception e) {
+					exception.set(e);
+				}
+
+				@Override
+				public boolean callOnGameThread() {
+					return false;
+				}
+			});
+			scriptingEngine.dispose();
+
+			Assert.assertNull(exception.get());
+			Assert.assertEquals("hello123", result.get().get("stringValue"));
+			Assert.assertEquals(101, result.get().getInt("intValue"));
+			Assert.assertEquals(scriptId, result.get().getInt(ScriptBindings.SCRIPT_ID_VAR));
+		}
+	}
+
+	@Test
+	public void testCompileScriptWithFileAnnotation() throws Exception {
+		final File scriptsDir = temporaryFolder.newFolder("scripts");
+		final File scriptFile = new File(scriptsDir, "annotated.kts");
+		Files.write(scriptFile.toPath(), "@file:Suppress(\"UNUSED_VARIABLE\")\nval stringValue: String = bindings[\"stringValue\"] as String"
+				.getBytes(StandardCharsets.UTF_8));
+
+		final File outputDir = temporaryFolder.newFolder("classes");
+		final CompilerConfig compilerConfig = new CompilerConfig(ROOT_PACKAGE, outputDir);
+		compilerConfig.setInputScriptFile(new CompilerInputFile(scriptsDir, scriptFile));
+		new KotlinScriptCompiler(ContextKt.classpathFromClassloader(KotlinScriptCompilerTest.class.getClassLoader()),
+				temporaryFolder.newFolder("src")).compileFile(compilerConfig);
+		Assert.assertTrue(compilerConfig.getOutputClassFile("annotated").exists());
+	}
+
+	@Test
+	public void testPackageDeclarationInsertedAfterFileAnnotations() {
+		Assert.assertEquals("package a.b; val x = 1\n", KotlinScriptCompiler.insertPackageDeclaration("a.b", "val x = 1\n"));
+		Assert.assertEquals("@file:JvmName(\"Reward\")\n// comment\npackage a.b; val x = 1",
+				KotlinScriptCompiler.insertPackageDeclaration("a.b", "@file:JvmName(\"Reward\")\n// comment\nval x = 1"));
+		Assert.assertEquals("/* header\n*/\n@file:Suppress(\"UNUSED\")\npackage a.b; import java.io.File",
+				KotlinScriptCompiler.insertPackageDeclaration("a.b", "/* header\n*/\n@file:Suppress(\"UNUSED\")\nimport java.io.File"));
+		Assert.assertEquals("@file:JvmName(\"Reward\")\npackage a.b; ",
+				KotlinScriptCompiler.insertPackageDeclaration("a.b", "@file:JvmName(\"Reward\")"));
+	}
+}
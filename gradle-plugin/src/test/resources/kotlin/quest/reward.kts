@@ -0,0 +1,3 @@
+val stringValue: String = bindings["stringValue"] as String + "123"
+val intValue: Int = bindings["intValue"] as Int + 100
+val scriptId: Int = bindings["scriptId"] as Int
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.groovy;
+
+import groovy.lang.Script;
+import org.mini2Dx.miniscript.core.GameScript;
+
+/**
+ * An implementation of {@link GameScript} for Groovy scripts that have been compiled once
+ * to a {@link Script} class. Each {@link GroovyScriptExecutor} creates its own {@link Script}
+ * instance of the class so that the script can be executed concurrently.
+ */
+public class GroovyClassGameScript extends GameScript<Script> {
+	private volatile Class<? extends Script> scriptClass;
+
+	public GroovyClassGameScript(Class<? extends Script> scriptClass) {
+		super();
+		this.scriptClass = scriptClass;
+	}
+
+	/**
+	 * Creates a new instance of this script
+	 * @return A new {@link Script} instance
+	 * @throws Exception Thrown if the {@link Script} could not be instantiated
+	 */
+	public Script createInstance() throws Exception {
+		return scriptClass.newInstance();
+	}
+
+	/**
+	 * Not supported as each executor requires its own {@link Script} instance.
+	 * Use {@link #createInstance()} or {@link #getScriptClass()} instead.
+	 */
+	@Override
+	public Script getScript() {
+		throw new UnsupportedOperationException("Groovy class scripts must be instantiated with createInstance()");
+	}
+
+	@Override
+	public boolean hasScript() {
+		return scriptClass != null;
+	}
+
+	/**
+	 * Replaces this script with the class of a {@link Script} instance
+	 * @param script The {@link Script} whose class to use
+	 */
+	@Override
+	public void setScript(Script script) {
+		setScriptClass(script.getClass());
+	}
+
+	public Class<? extends Script> getScriptClass() {
+		return scriptClass;
+	}
+
+	/**
+	 * Replaces the compiled class of this script.
+	 * Executors create a new instance on the script's next invocation.
+	 * @param scriptClass The new {@link Script} class
+	 */
+	public void setScriptClass(Class<? extends Script> scriptClass) {
+		this.scriptClass = scriptClass;
+	}
+}
@@ -23,11 +23,17 @@
  */
 package org.mini2Dx.miniscript.groovy;
 
+import org.codehaus.groovy.control.CompilerConfiguration;
 import org.mini2Dx.miniscript.core.ClasspathScriptProvider;
+import org.mini2Dx.miniscript.core.CompiledScriptStore;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
 import org.mini2Dx.miniscript.core.ScriptExecutorPool;
+import org.mini2Dx.miniscript.core.ThreadPoolProvider;
 import org.mini2Dx.miniscript.core.exception.SandboxingUnsupportedException;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * An implementation of {@link GameScriptingEngine} for Groovy-based scripts
  */
@@ -54,6 +60,10 @@ public class GroovyGameScriptingEngine extends GameScriptingEngine {
 		super(maxConcurrentScripts);
 	}
 
+	public GroovyGameScriptingEngine(int maxConcurrentScripts, ThreadPoolProvider threadPoolProvider) {
+		super(maxConcurrentScripts, threadPoolProvider);
+	}
+
 	@Override
 	protected ScriptExecutorPool<?> createScriptExecutorPool(ClasspathScriptProvider classpathScriptProvider, int poolSize, boolean sandboxing) {
 		if(sandboxing) {
@@ -62,6 +72,66 @@ public class GroovyGameScriptingEngine extends GameScriptingEngine {
 		return new GroovyScriptExecutorPool(this, poolSize);
 	}
 
+	/**
+	 * Returns the {@link CompilerConfiguration} used to compile scripts
+	 * @return The current {@link CompilerConfiguration}
+	 */
+	public CompilerConfiguration getCompilerConfiguration() {
+		return ((GroovyScriptExecutorPool) getScriptExecutorPool()).getCompilerConfiguration();
+	}
+
+	/**
+	 * Sets the {@link CompilerConfiguration} used to compile scripts. Scripts compiled before this is called are unaffected.
+	 *
+	 * Note: Scripts with the {@link GroovyScriptExecutorPool#STATIC_SCRIPT_EXTENSION} file extension are always
+	 * compiled with {@link groovy.transform.CompileStatic}
+	 *
+	 * @param compilerConfiguration The {@link CompilerConfiguration} to use
+	 */
+	public void setCompilerConfiguration(CompilerConfiguration compilerConfiguration) {
+		((GroovyScriptExecutorPool) getScriptExecutorPool()).setCompilerConfiguration(compilerConfiguration);
+	}
+
+	/**
+	 * Sets if scripts compiled after this call should use invokedynamic
+	 * @param invokeDynamic True if invokedynamic should be used
+	 */
+	public void setInvokeDynamicEnabled(boolean invokeDynamic) {
+		final CompilerConfiguration compilerConfiguration = GroovyScriptExecutorPool.copyCompilerConfiguration(getCompilerConfiguration());
+		compilerConfiguration.getOptimizationOptions().put(CompilerConfiguration.INVOKEDYNAMIC, invokeDynamic);
+		setCompilerConfiguration(compilerConfiguration);
+	}
+
+	/**
+	 * Returns if scripts are compiled with invokedynamic
+	 * @return True if invokedynamic is enabled
+	 */
+	public boolean isInvokeDynamicEnabled() {
+		return Boolean.TRUE.equals(getCompilerConfiguration().getOptimizationOptions().get(CompilerConfiguration.INVOKEDYNAMIC));
+	}
+
+	/**
+	 * Sets the directory to store compiled script classes in. Scripts compiled after this is called
+	 * are loaded from the directory if their content is unchanged, skipping the Groovy compiler.
+	 * The directory can be shared by multiple processes.
+	 *
+	 * @param directory The cache directory or null to disable caching
+	 * @throws IOException Thrown if the directory could not be created
+	 */
+	public void setCompiledScriptCacheDirectory(Path directory) throws IOException {
+		((GroovyScriptExecutorPool) getScriptExecutorPool()).setCompiledScriptStore(
+				directory == null ? null : new CompiledScriptStore(directory, ".groovyc"));
+	}
+
+	/**
+	 * Returns the directory compiled script classes are stored in
+	 * @return Null if caching is disabled
+	 */
+	public Path getCompiledScriptCacheDirectory() {
+		final CompiledScriptStore compiledScriptStore = ((GroovyScriptExecutorPool) getScriptExecutorPool()).getCompiledScriptStore();
+		return compiledScriptStore == null ? null : compiledScriptStore.getDirectory();
+	}
+
 	@Override
 	public boolean isSandboxingSupported() {
 		return false;
@@ -24,9 +24,9 @@
 package org.mini2Dx.miniscript.groovy;
 
 import org.mini2Dx.miniscript.core.*;
+import org.mini2Dx.miniscript.core.util.IntMap;
 
 import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
 import groovy.lang.Script;
 
 /**
@@ -34,7 +34,7 @@ import groovy.lang.Script;
  */
 public class GroovyScriptExecutor implements ScriptExecutor<Script> {
 	private final GroovyScriptExecutorPool executorPool;
-	private final GroovyShell groovyShell = new GroovyShell();
+	private final IntMap<Script> scriptInstances = new IntMap<Script>();
 
 	private Script lastScript;
 	
@@ -44,12 +44,29 @@ public class GroovyScriptExecutor implements ScriptExecutor<Script> {
 
 	@Override
 	public GameScript<Script> compile(String script) {
-		return new GlobalGameScript<Script>(groovyShell.parse(script));
+		return executorPool.compileScript(null, script);
 	}
 	
 	@Override
 	public ScriptExecutionResult execute(int scriptId, GameScript<Script> script, ScriptBindings bindings, boolean returnResult) throws Exception {
-		final Script groovyScript = script.getScript();
+		final Script groovyScript = run(scriptId, script, bindings);
+		return returnResult ? new ScriptExecutionResult(groovyScript.getBinding().getVariables()) : null;
+	}
+
+	@Override
+	public ScriptExecutionResult execute(int scriptId, GameScript<Script> script, ScriptBindings bindings, String[] resultKeys) throws Exception {
+		final Binding binding = run(scriptId, script, bindings).getBinding();
+		final ScriptExecutionResult executionResult = new ScriptExecutionResult(null);
+		for(String resultKey : resultKeys) {
+			if(binding.hasVariable(resultKey)) {
+				executionResult.put(resultKey, binding.getVariable(resultKey));
+			}
+		}
+		return executionResult;
+	}
+
+	private Script run(int scriptId, GameScript<Script> script, ScriptBindings bindings) throws Exception {
+		final Script groovyScript = getScriptInstance(script);
 		this.lastScript = groovyScript;
 
 		final GroovyEmbeddedScriptInvoker embeddedScriptInvoker = executorPool.getEmbeddedScriptInvokerPool().allocate();
@@ -65,15 +82,15 @@ public class GroovyScriptExecutor implements ScriptExecutor<Script> {
 		groovyScript.run();
 
 		executorPool.getEmbeddedScriptInvokerPool().release(embeddedScriptInvoker);
-		
-		return returnResult ? new ScriptExecutionResult(groovyScript.getBinding().getVariables()) : null;
+		return groovyScript;
 	}
 
 	@Override
 	public void executeEmbedded(int parentScriptId, int scriptId, GameScript<Script> script,
 								EmbeddedScriptInvoker embeddedScriptInvoker, ScriptBindings bindings) throws Exception {
 		final Script previousScript = lastScript;
-		final Script groovyScript = script.getScript();
+		//Embedded scripts may invoke themselves so always use a new instance
+		final Script groovyScript = createScriptInstance(script);
 		this.lastScript = groovyScript;
 		embeddedScriptInvoker.setParentScriptId(scriptId);
 
@@ -93,6 +110,26 @@ public class GroovyScriptExecutor implements ScriptExecutor<Script> {
 		}
 	}
 
+	private Script getScriptInstance(GameScript<Script> script) throws Exception {
+		if(!(script instanceof GroovyClassGameScript)) {
+			return script.getScript();
+		}
+		Script result = scriptInstances.get(script.getId());
+		//Re-create the instance if the script was replaced since it was last instantiated
+		if(result == null || result.getClass() != ((GroovyClassGameScript) script).getScriptClass()) {
+			result = createScriptInstance(script);
+			scriptInstances.put(script.getId(), result);
+		}
+		return result;
+	}
+
+	private Script createScriptInstance(GameScript<Script> script) throws Exception {
+		if(script instanceof GroovyClassGameScript) {
+			return ((GroovyClassGameScript) script).createInstance();
+		}
+		return script.getScript();
+	}
+
 	@Override
 	public void release() {
 		executorPool.release(this);
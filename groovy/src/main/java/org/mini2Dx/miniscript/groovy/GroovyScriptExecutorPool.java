@@ -23,26 +23,53 @@
  */
 package org.mini2Dx.miniscript.groovy;
 
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
 import groovy.lang.Script;
+import groovy.transform.CompileStatic;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.control.customizers.SourceAwareCustomizer;
+import org.codehaus.groovy.tools.GroovyClass;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
 import org.mini2Dx.miniscript.core.exception.NoSuchScriptException;
 import org.mini2Dx.miniscript.core.exception.ScriptExecutorUnavailableException;
-import org.mini2Dx.miniscript.core.util.ReadWriteBlockingQueue;
 import org.mini2Dx.miniscript.core.util.ReadWriteMap;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.TreeMap;
 
 /**
  * An implementation of {@link ScriptExecutorPool} for Groovy-based scripts
  */
 public class GroovyScriptExecutorPool implements ScriptExecutorPool<Script> {
+	/**
+	 * The file extension of scripts that opt in to static compilation
+	 */
+	public static final String STATIC_SCRIPT_EXTENSION = "sgroovy";
+	private static final String SCRIPT_EXTENSION = "groovy";
+
 	private final Map<Integer, GameScript<Script>> scripts = new ReadWriteMap<>();
 	private final Map<String, Integer> filepathToScriptId = new ReadWriteMap<String, Integer>();
 	private final Map<Integer, String> scriptIdToFilepath = new ReadWriteMap<Integer, String>();
-	private final BlockingQueue<ScriptExecutor<Script>> executors;
+	private final ScriptExecutorQueue<Script> executors;
 	private final GameScriptingEngine gameScriptingEngine;
+	private final GroovyClassLoader groovyClassLoader = new GroovyClassLoader();
+	private final Map<String, Class<? extends Script>> scriptClasses = new ReadWriteMap<String, Class<? extends Script>>();
+	private CompilerConfiguration compilerConfiguration;
+	private CompilerConfiguration shellConfiguration;
+	private volatile CompiledScriptStore compiledScriptStore;
 	private final SynchronizedObjectPool<GroovyEmbeddedScriptInvoker> embeddedScriptInvokerPool = new SynchronizedObjectPool<GroovyEmbeddedScriptInvoker>() {
 		@Override
 		protected GroovyEmbeddedScriptInvoker construct() {
@@ -52,11 +79,14 @@ public class GroovyScriptExecutorPool implements ScriptExecutorPool<Script> {
 
 	public GroovyScriptExecutorPool(GameScriptingEngine gameScriptingEngine, int poolSize) {
 		this.gameScriptingEngine = gameScriptingEngine;
-		executors = new ReadWriteBlockingQueue<>(poolSize);
+		setCompilerConfiguration(new CompilerConfiguration());
 
-		for (int i = 0; i < poolSize; i++) {
-			executors.offer(new GroovyScriptExecutor(this));
-		}
+		executors = new ScriptExecutorQueue<Script>(poolSize) {
+			@Override
+			protected ScriptExecutor<Script> construct() {
+				return new GroovyScriptExecutor(GroovyScriptExecutorPool.this);
+			}
+		};
 	}
 
 	@Override
@@ -80,12 +110,7 @@ public class GroovyScriptExecutorPool implements ScriptExecutorPool<Script> {
 
 	@Override
 	public int preCompileScript(String filepath, String scriptContent) throws InsufficientCompilersException {
-		ScriptExecutor<Script> executor = executors.poll();
-		if (executor == null) {
-			throw new InsufficientCompilersException();
-		}
-		GameScript<Script> script = executor.compile(scriptContent);
-		executor.release();
+		GameScript<Script> script = compileScript(filepath, scriptContent);
 		scripts.put(script.getId(), script);
 		filepathToScriptId.put(filepath, script.getId());
 		scriptIdToFilepath.put(script.getId(), filepath);
@@ -116,6 +141,11 @@ public class GroovyScriptExecutorPool implements ScriptExecutorPool<Script> {
 		return null;
 	}
 
+	@Override
+	public ScriptExecutorQueue<Script> getExecutorQueue() {
+		return executors;
+	}
+
 	@Override
 	public GameScriptingEngine getGameScriptingEngine() {
 		return gameScriptingEngine;
@@ -125,7 +155,168 @@ public class GroovyScriptExecutorPool implements ScriptExecutorPool<Script> {
 		return embeddedScriptInvokerPool;
 	}
 
+	/**
+	 * Compiles a script to a {@link Script} class. Scripts with the {@link #STATIC_SCRIPT_EXTENSION}
+	 * file extension are compiled with {@link CompileStatic}.
+	 *
+	 * Scripts with identical content and compiler settings share the same class. If a
+	 * {@link CompiledScriptStore} is set, the class is loaded from the store when available.
+	 *
+	 * @param filepath The filepath of the script (may be null)
+	 * @param scriptContent The script source
+	 * @return A new {@link GroovyClassGameScript}
+	 */
+	public GameScript<Script> compileScript(String filepath, String scriptContent) {
+		final boolean staticCompilation = filepath != null && filepath.endsWith("." + STATIC_SCRIPT_EXTENSION);
+		final CompilerConfiguration configuration = getShellConfiguration();
+		final String key = CompiledScriptStore.createKey(GroovySystem.getVersion(), String.valueOf(staticCompilation),
+				new TreeMap<String, Boolean>(configuration.getOptimizationOptions()).toString(), scriptContent);
+
+		Class<? extends Script> scriptClass = scriptClasses.get(key);
+		if(scriptClass == null) {
+			scriptClass = loadScriptClass(key, staticCompilation ? STATIC_SCRIPT_EXTENSION : SCRIPT_EXTENSION,
+					configuration, scriptContent);
+			scriptClasses.put(key, scriptClass);
+		}
+		return new GroovyClassGameScript(scriptClass);
+	}
+
+	private Class<? extends Script> loadScriptClass(String key, String extension, CompilerConfiguration configuration, String scriptContent) {
+		final String className = "Script_" + key.substring(0, 16);
+		final CompiledScriptStore compiledScriptStore = this.compiledScriptStore;
+		if(compiledScriptStore != null) {
+			final byte[] storedClasses = compiledScriptStore.read(key);
+			if(storedClasses != null) {
+				try {
+					return defineScriptClass(className, storedClasses);
+				} catch (Exception | LinkageError e) {
+					//Corrupt or incompatible entry, recompile and replace it
+				}
+			}
+		}
+
+		final CompilationUnit compilationUnit = new CompilationUnit(configuration, null, groovyClassLoader);
+		compilationUnit.addSource(className + "." + extension, scriptContent);
+		compilationUnit.compile(Phases.CLASS_GENERATION);
+
+		try {
+			final byte[] classes = writeClasses(compilationUnit.getClasses());
+			if(compiledScriptStore != null) {
+				compiledScriptStore.write(key, classes);
+			}
+			return defineScriptClass(className, classes);
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Class<? extends Script> defineScriptClass(String className, byte[] classes) throws IOException, ClassNotFoundException {
+		final Map<String, byte[]> classBytes = new HashMap<String, byte[]>();
+		final DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(classes));
+		final int totalClasses = inputStream.readInt();
+		for(int i = 0; i < totalClasses; i++) {
+			final String name = inputStream.readUTF();
+			final byte[] bytes = new byte[inputStream.readInt()];
+			inputStream.readFully(bytes);
+			classBytes.put(name, bytes);
+		}
+		return new GroovyScriptClassLoader(groovyClassLoader, classBytes).loadClass(className).asSubclass(Script.class);
+	}
+
+	private static byte[] writeClasses(List<?> classes) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final DataOutputStream outputStream = new DataOutputStream(result);
+		outputStream.writeInt(classes.size());
+		for(int i = 0; i < classes.size(); i++) {
+			//CompilationUnit.getClasses() returns a raw List of GroovyClass
+			final GroovyClass groovyClass = (GroovyClass) classes.get(i);
+			outputStream.writeUTF(groovyClass.getName());
+			outputStream.writeInt(groovyClass.getBytes().length);
+			outputStream.write(groovyClass.getBytes());
+		}
+		outputStream.flush();
+		return result.toByteArray();
+	}
+
+	public synchronized CompilerConfiguration getCompilerConfiguration() {
+		return compilerConfiguration;
+	}
+
+	/**
+	 * Sets the {@link CompilerConfiguration} used for scripts compiled after this call
+	 * @param compilerConfiguration The {@link CompilerConfiguration} to use
+	 */
+	public synchronized void setCompilerConfiguration(CompilerConfiguration compilerConfiguration) {
+		final CompilerConfiguration shellConfiguration = copyCompilerConfiguration(compilerConfiguration);
+		final SourceAwareCustomizer staticCompilationCustomizer = new SourceAwareCustomizer(
+				new ASTTransformationCustomizer(CompileStatic.class)) {
+			@Override
+			public boolean acceptExtension(String extension) {
+				return STATIC_SCRIPT_EXTENSION.equals(extension);
+			}
+		};
+		shellConfiguration.addCompilationCustomizers(staticCompilationCustomizer);
+
+		this.compilerConfiguration = compilerConfiguration;
+		this.shellConfiguration = shellConfiguration;
+		scriptClasses.clear();
+	}
+
+	public CompiledScriptStore getCompiledScriptStore() {
+		return compiledScriptStore;
+	}
+
+	/**
+	 * Sets the {@link CompiledScriptStore} to load and store compiled script classes.
+	 *
+	 * Note: Entries are keyed by script content and optimization options. Custom
+	 * {@link CompilationCustomizer}s are not part of the key so the store should be cleared when they change.
+	 *
+	 * @param compiledScriptStore The {@link CompiledScriptStore} or null to disable storing classes
+	 */
+	public void setCompiledScriptStore(CompiledScriptStore compiledScriptStore) {
+		this.compiledScriptStore = compiledScriptStore;
+	}
+
+	/**
+	 * Copies a {@link CompilerConfiguration} including its {@link CompilationCustomizer}s
+	 * @param compilerConfiguration The {@link CompilerConfiguration} to copy
+	 * @return A new {@link CompilerConfiguration}
+	 */
+	static CompilerConfiguration copyCompilerConfiguration(CompilerConfiguration compilerConfiguration) {
+		final CompilerConfiguration result = new CompilerConfiguration(compilerConfiguration);
+		for(CompilationCustomizer compilationCustomizer : compilerConfiguration.getCompilationCustomizers()) {
+			result.addCompilationCustomizers(compilationCustomizer);
+		}
+		return result;
+	}
+
+	private synchronized CompilerConfiguration getShellConfiguration() {
+		return shellConfiguration;
+	}
+
 	GameScript<Script> getScript(int scriptId) {
 		return scripts.get(scriptId);
 	}
+
+	/**
+	 * Defines the classes generated for a single script
+	 */
+	private static class GroovyScriptClassLoader extends ClassLoader {
+		private final Map<String, byte[]> classBytes;
+
+		public GroovyScriptClassLoader(ClassLoader parent, Map<String, byte[]> classBytes) {
+			super(parent);
+			this.classBytes = classBytes;
+		}
+
+		@Override
+		protected synchronized Class<?> findClass(String name) throws ClassNotFoundException {
+			final byte[] bytes = classBytes.remove(name);
+			if(bytes == null) {
+				return super.findClass(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
 }
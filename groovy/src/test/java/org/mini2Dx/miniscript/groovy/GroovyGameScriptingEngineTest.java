@@ -27,17 +27,182 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.codehaus.groovy.control.CompilationFailedException;
 import org.mini2Dx.miniscript.core.AbstractGameScriptingEngineTest;
+import org.mini2Dx.miniscript.core.CompiledScriptStore;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+import org.mini2Dx.miniscript.core.ScriptInvocationListener;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+import org.mini2Dx.miniscript.core.dummy.ScriptResult;
+import org.mini2Dx.miniscript.core.threadpool.KavaThreadPoolProvider;
 
 /**
  * UATs for {@link GroovyGameScriptingEngine}
  */
 public class GroovyGameScriptingEngineTest extends AbstractGameScriptingEngineTest {
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testIdenticalScriptsShareClass() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final GroovyScriptExecutorPool executorPool = new GroovyScriptExecutorPool(dummyGameScriptingEngine, 1);
+
+		final int scriptId1 = executorPool.preCompileScript("script1.groovy", "result = 1");
+		final int scriptId2 = executorPool.preCompileScript("script2.groovy", "result = 1");
+		final int scriptId3 = executorPool.preCompileScript("script3.groovy", "result = 2");
+		Assert.assertNotEquals(scriptId1, scriptId2);
+		Assert.assertSame(((GroovyClassGameScript) executorPool.getScript(scriptId1)).getScriptClass(),
+				((GroovyClassGameScript) executorPool.getScript(scriptId2)).getScriptClass());
+		Assert.assertNotSame(((GroovyClassGameScript) executorPool.getScript(scriptId1)).getScriptClass(),
+				((GroovyClassGameScript) executorPool.getScript(scriptId3)).getScriptClass());
+
+		final GroovyClassGameScript script1 = (GroovyClassGameScript) executorPool.getScript(scriptId1);
+		Assert.assertTrue(script1.hasScript());
+		Assert.assertSame(script1.getScriptClass(), script1.createInstance().getClass());
+		Assert.assertNotSame(script1.createInstance(), script1.createInstance());
+
+		final GroovyScriptExecutor executor = new GroovyScriptExecutor(executorPool);
+		Assert.assertEquals(1, executor.execute(scriptId1, script1, new ScriptBindings(), true).get("result"));
+
+		script1.setScript(((GroovyClassGameScript) executorPool.getScript(scriptId3)).createInstance());
+		Assert.assertSame(((GroovyClassGameScript) executorPool.getScript(scriptId3)).getScriptClass(), script1.getScriptClass());
+		Assert.assertEquals(2, executor.execute(scriptId1, script1, new ScriptBindings(), true).get("result"));
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testCompiledScriptStore() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final String script = "def add = { a, b -> a + b }\nresult = [4, 5, 6].inject(0, add)";
+		final AtomicInteger totalHits = new AtomicInteger(0);
+		final AtomicInteger totalWrites = new AtomicInteger(0);
+
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final GroovyScriptExecutorPool executorPool1 = new GroovyScriptExecutorPool(dummyGameScriptingEngine, 1);
+		executorPool1.setCompiledScriptStore(new CountingCompiledScriptStore(directory, totalHits, totalWrites));
+		executorPool1.preCompileScript("script.groovy", script);
+		Assert.assertEquals(0, totalHits.get());
+		Assert.assertEquals(1, totalWrites.get());
+
+		final GroovyScriptExecutorPool executorPool2 = new GroovyScriptExecutorPool(dummyGameScriptingEngine, 1);
+		executorPool2.setCompiledScriptStore(new CountingCompiledScriptStore(directory, totalHits, totalWrites));
+		final int scriptId = executorPool2.preCompileScript("script.groovy", script);
+		Assert.assertEquals(1, totalHits.get());
+		Assert.assertEquals(1, totalWrites.get());
+
+		final GroovyScriptExecutor executor = new GroovyScriptExecutor(executorPool2);
+		Assert.assertEquals(15, executor.execute(scriptId, executorPool2.getScript(scriptId), new ScriptBindings(), true).getInt("result"));
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testStaticCompilationOptIn() throws Exception {
+		final String script = "String value = 'abc'\nvalue.notAMethod()";
+		scriptingEngine.compileScript("dynamic.groovy", script);
+		try {
+			scriptingEngine.compileScript("static.sgroovy", script);
+			Assert.fail("Expected static type checking to fail");
+		} catch (CompilationFailedException e) {
+		}
+
+		final int scriptId = scriptingEngine.compileScript("result.sgroovy", "int total = 0\nfor(int i = 0; i < 10; i++) { total += i }\nbinding.setVariable('result', total)");
+		scriptingEngine.invokeCompiledScriptSync(0, scriptId, scriptBindings, new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				scriptResult.set(executionResult.getInt("result") == 45 ? ScriptResult.SUCCESS : ScriptResult.INCORRECT_VARIABLES);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+				scriptResult.set(ScriptResult.SKIPPED);
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+				scriptResult.set(ScriptResult.EXCEPTION);
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		});
+		Assert.assertEquals(ScriptResult.SUCCESS, scriptResult.get());
+	}
+
+	@Test
+	public void testInvokeDynamic() throws Exception {
+		final GroovyGameScriptingEngine groovyScriptingEngine = (GroovyGameScriptingEngine) scriptingEngine;
+		Assert.assertFalse(groovyScriptingEngine.isInvokeDynamicEnabled());
+		groovyScriptingEngine.setInvokeDynamicEnabled(true);
+		Assert.assertTrue(groovyScriptingEngine.isInvokeDynamicEnabled());
+		testInvokeScript();
+	}
+
+	@Test
+	public void testConcurrentInvocationsOfSameScript() throws Exception {
+		final int totalInvocations = 8;
+		final GameScriptingEngine concurrentScriptingEngine = new GroovyGameScriptingEngine(4, new KavaThreadPoolProvider(8));
+		final AtomicInteger completedInvocations = new AtomicInteger();
+		final AtomicInteger incorrectResults = new AtomicInteger();
+
+		final int scriptId = concurrentScriptingEngine.compileScript("result = value * 2\nThread.sleep(20)\nresult = result + value");
+		for(int i = 0; i < totalInvocations; i++) {
+			final int value = i;
+			final ScriptBindings bindings = new ScriptBindings();
+			bindings.put("value", value);
+			concurrentScriptingEngine.invokeCompiledScript(scriptId, bindings, new ScriptInvocationListener() {
+				@Override
+				public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+					if(executionResult.getInt("result") != value * 3) {
+						incorrectResults.incrementAndGet();
+					}
+					completedInvocations.incrementAndGet();
+				}
+
+				@Override
+				public void onScriptSkipped(int scriptId) {
+					incorrectResults.incrementAndGet();
+					completedInvocations.incrementAndGet();
+				}
+
+				@Override
+				public void onScriptException(int scriptId, Exception e) {
+					e.printStackTrace();
+					incorrectResults.incrementAndGet();
+					completedInvocations.incrementAndGet();
+				}
+
+				@Override
+				public boolean callOnGameThread() {
+					return false;
+				}
+			});
+		}
+
+		final long timeout = System.currentTimeMillis() + 10000L;
+		while(completedInvocations.get() < totalInvocations && System.currentTimeMillis() < timeout) {
+			concurrentScriptingEngine.update(1f);
+			Thread.sleep(1);
+		}
+		concurrentScriptingEngine.dispose();
+		Assert.assertEquals(totalInvocations, completedInvocations.get());
+		Assert.assertEquals(0, incorrectResults.get());
+	}
+
 	@Override
 	protected GameScriptingEngine createScriptingEngine() {
 		return new GroovyGameScriptingEngine(1);
@@ -114,4 +279,30 @@ public class GroovyGameScriptingEngineTest extends AbstractGameScriptingEngineTe
 		Assert.fail("Could not read waitForCompletion script");
 		return null;
 	}
+
+	private static class CountingCompiledScriptStore extends CompiledScriptStore {
+		private final AtomicInteger totalHits;
+		private final AtomicInteger totalWrites;
+
+		public CountingCompiledScriptStore(Path directory, AtomicInteger totalHits, AtomicInteger totalWrites) throws IOException {
+			super(directory, ".groovyc");
+			this.totalHits = totalHits;
+			this.totalWrites = totalWrites;
+		}
+
+		@Override
+		public byte[] read(String key) {
+			final byte[] result = super.read(key);
+			if(result != null) {
+				totalHits.incrementAndGet();
+			}
+			return result;
+		}
+
+		@Override
+		public void write(String key, byte[] bytes) {
+			totalWrites.incrementAndGet();
+			super.write(key, bytes);
+		}
+	}
 }
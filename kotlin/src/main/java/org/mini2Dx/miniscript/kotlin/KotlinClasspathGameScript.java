@@ -0,0 +1,93 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.kotlin;
+
+import org.mini2Dx.miniscript.core.GameScript;
+import org.mini2Dx.miniscript.core.GlobalGameScript;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+/**
+ * A {@link GameScript} for Kotlin scripts compiled to classes at build time. The script is the compiled script
+ * class. The script body runs when the class is constructed with its bindings, so no Kotlin compiler is required
+ * to execute it.
+ */
+public class KotlinClasspathGameScript extends GlobalGameScript<Object> {
+	private Constructor<?> constructor;
+	private KotlinScriptFields fields;
+
+	public KotlinClasspathGameScript(Class<?> scriptClass) {
+		super(scriptClass);
+		setScriptClass(scriptClass);
+	}
+
+	/**
+	 * Executes the script by constructing a new instance of its class
+	 * @param bindings The variables passed to the script as its bindings
+	 * @return The script instance holding the script's variables
+	 * @throws Exception Thrown if the script throws an exception
+	 */
+	public Object newInstance(Map<String, Object> bindings) throws Exception {
+		try {
+			return constructor.newInstance(bindings);
+		} catch (InvocationTargetException e) {
+			if(e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	KotlinScriptFields getFields() {
+		return fields;
+	}
+
+	public Class<?> getScriptClass() {
+		return (Class<?>) getScript();
+	}
+
+	/**
+	 * Replaces the compiled script class
+	 * @param script The {@link Class} of a compiled Kotlin script
+	 */
+	@Override
+	public void setScript(Object script) {
+		if(!(script instanceof Class)) {
+			throw new IllegalArgumentException("Expected a compiled Kotlin script class but got " + script);
+		}
+		setScriptClass((Class<?>) script);
+		super.setScript(script);
+	}
+
+	private void setScriptClass(Class<?> scriptClass) {
+		try {
+			constructor = scriptClass.getConstructor(Map.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(scriptClass.getName() + " is not a compiled Kotlin script");
+		}
+		fields = new KotlinScriptFields(scriptClass);
+	}
+}
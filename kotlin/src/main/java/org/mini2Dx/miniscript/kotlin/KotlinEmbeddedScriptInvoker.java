@@ -23,7 +23,6 @@
  */
 package org.mini2Dx.miniscript.kotlin;
 
-import org.jetbrains.kotlin.cli.common.repl.KotlinJsr223JvmScriptEngineBase.CompiledKotlinScript;
 import org.mini2Dx.miniscript.core.EmbeddedScriptInvoker;
 import org.mini2Dx.miniscript.core.GameScript;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
@@ -42,7 +41,7 @@ public class KotlinEmbeddedScriptInvoker extends EmbeddedScriptInvoker {
 
 	@Override
 	public void invokeSync(int scriptId) {
-		final GameScript<CompiledKotlinScript> script = kotlinScriptExecutorPool.getScript(scriptId);
+		final GameScript<Object> script = kotlinScriptExecutorPool.getScript(scriptId);
 		if(script == null) {
 			throw new NoSuchScriptException(scriptId);
 		}
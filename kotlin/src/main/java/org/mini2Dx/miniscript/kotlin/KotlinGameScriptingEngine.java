@@ -80,7 +80,7 @@ public class KotlinGameScriptingEngine extends GameScriptingEngine {
 			throw new SandboxingUnsupportedException(SCRIPTING_LANGUAGE);
 		}
 		System.setProperty("idea.io.use.fallback", "true");
-		return new KotlinScriptExecutorPool(this, poolSize);
+		return new KotlinScriptExecutorPool(this, classpathScriptProvider, poolSize);
 	}
 
 	@Override
@@ -23,51 +23,82 @@
  */
 package org.mini2Dx.miniscript.kotlin;
 
+import org.jetbrains.kotlin.cli.common.repl.AggregatedReplStageState;
+import org.jetbrains.kotlin.cli.common.repl.EvalClassWithInstanceAndLoader;
+import org.jetbrains.kotlin.cli.common.repl.ILineId;
 import org.jetbrains.kotlin.cli.common.repl.KotlinJsr223JvmScriptEngineBase.CompiledKotlinScript;
+import org.jetbrains.kotlin.cli.common.repl.KotlinJsr223JvmScriptEngineBaseKt;
 import org.jetbrains.kotlin.ir.expressions.IrConstKind.Char;
 import org.jetbrains.kotlin.script.jsr223.KotlinJsr223JvmLocalScriptEngine;
 import org.jetbrains.kotlin.script.jsr223.KotlinJsr223JvmLocalScriptEngineFactory;
 import org.jetbrains.kotlin.util.KotlinFrontEndException;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.ScriptSkippedException;
+import org.mini2Dx.miniscript.core.util.IntMap;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.SimpleScriptContext;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * An implementation of {@link ScriptExecutor} for Kotlin-based scripts
  */
-public class KotlinScriptExecutor implements ScriptExecutor<CompiledKotlinScript> {
+public class KotlinScriptExecutor implements ScriptExecutor<Object> {
 	private final KotlinScriptExecutorPool executorPool;
-	private final KotlinJsr223JvmLocalScriptEngine engine;
+	private final IntMap<CompiledScriptContext> compiledScripts = new IntMap<CompiledScriptContext>();
+	private int totalCompilations;
+
+	private KotlinJsr223JvmLocalScriptEngine engine;
 
 	public KotlinScriptExecutor(KotlinScriptExecutorPool executorPool) {
 		this.executorPool = executorPool;
-
-		engine = (KotlinJsr223JvmLocalScriptEngine) new KotlinJsr223JvmLocalScriptEngineFactory().getScriptEngine();
 	}
 
 	@Override
-	public GameScript<CompiledKotlinScript> compile(String script) {
+	public GameScript<Object> compile(String script) {
 		return new PerThreadGameScript<>(script);
 	}
 
 	@Override
-	public ScriptExecutionResult execute(int scriptId, GameScript<CompiledKotlinScript> script, ScriptBindings bindings,
+	public ScriptExecutionResult execute(int scriptId, GameScript<Object> script, ScriptBindings bindings,
 			boolean returnResult) throws Exception {
-		final PerThreadGameScript<CompiledKotlinScript> threadScript = (PerThreadGameScript<CompiledKotlinScript>) script;
+		return execute(scriptId, script, bindings, returnResult, null);
+	}
+
+	@Override
+	public ScriptExecutionResult execute(int scriptId, GameScript<Object> script, ScriptBindings bindings,
+			String[] resultKeys) throws Exception {
+		return execute(scriptId, script, bindings, true, resultKeys);
+	}
+
+	private ScriptExecutionResult execute(int scriptId, GameScript<Object> script, ScriptBindings bindings,
+			boolean returnResult, String[] resultKeys) throws Exception {
+		if(script instanceof KotlinClasspathGameScript) {
+			return executeClasspathScript(scriptId, (KotlinClasspathGameScript) script, bindings, returnResult, resultKeys);
+		}
+		final PerThreadGameScript<Object> threadScript = (PerThreadGameScript<Object>) script;
 
 		final KotlinEmbeddedScriptInvoker embeddedScriptInvoker = executorPool.getEmbeddedScriptInvokerPool().allocate();
 		embeddedScriptInvoker.setScriptBindings(bindings);
 		embeddedScriptInvoker.setScriptExecutor(this);
 		embeddedScriptInvoker.setParentScriptId(scriptId);
 
-		for (String variableName : bindings.keySet()) {
-			engine.put(variableName, bindings.get(variableName));
-		}
-		engine.put(ScriptBindings.SCRIPT_PARENT_ID_VAR, -1);
-		engine.put(ScriptBindings.SCRIPT_ID_VAR, scriptId);
-		engine.put(ScriptBindings.SCRIPT_INVOKE_VAR, embeddedScriptInvoker);
-
+		final CompiledScriptContext compiledScriptContext;
 		try {
-			engine.eval(threadScript.getContent());
+			compiledScriptContext = getCompiledScript(scriptId, threadScript);
+
+			final Bindings engineBindings = compiledScriptContext.scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+			for (String variableName : bindings.keySet()) {
+				engineBindings.put(variableName, bindings.get(variableName));
+			}
+			engineBindings.put(ScriptBindings.SCRIPT_PARENT_ID_VAR, -1);
+			engineBindings.put(ScriptBindings.SCRIPT_ID_VAR, scriptId);
+			engineBindings.put(ScriptBindings.SCRIPT_INVOKE_VAR, embeddedScriptInvoker);
+
+			compiledScriptContext.resetHistory();
+			engine.eval(compiledScriptContext.compiledScript, compiledScriptContext.scriptContext);
 		} catch (Exception e) {
 			if(e.getMessage().contains(ScriptSkippedException.class.getName())) {
 				throw new ScriptSkippedException();
@@ -84,20 +115,55 @@ public class KotlinScriptExecutor implements ScriptExecutor<CompiledKotlinScript
 			return null;
 		}
 
+		final Object scriptInstance = compiledScriptContext.getScriptInstance();
+		return createResult(compiledScriptContext.getFields(scriptInstance), scriptInstance, bindings, resultKeys);
+	}
+
+	private ScriptExecutionResult executeClasspathScript(int scriptId, KotlinClasspathGameScript script, ScriptBindings bindings,
+			boolean returnResult, String[] resultKeys) throws Exception {
+		final KotlinEmbeddedScriptInvoker embeddedScriptInvoker = executorPool.getEmbeddedScriptInvokerPool().allocate();
+		embeddedScriptInvoker.setScriptBindings(bindings);
+		embeddedScriptInvoker.setScriptExecutor(this);
+		embeddedScriptInvoker.setParentScriptId(scriptId);
+
+		final Map<String, Object> scriptBindings = new HashMap<String, Object>(bindings);
+		scriptBindings.put(ScriptBindings.SCRIPT_PARENT_ID_VAR, -1);
+		scriptBindings.put(ScriptBindings.SCRIPT_ID_VAR, scriptId);
+		scriptBindings.put(ScriptBindings.SCRIPT_INVOKE_VAR, embeddedScriptInvoker);
+
+		final Object instance = script.newInstance(scriptBindings);
+
+		executorPool.getEmbeddedScriptInvokerPool().release(embeddedScriptInvoker);
+
+		if (!returnResult) {
+			return null;
+		}
+
+		return createResult(script.getFields(), instance, bindings, resultKeys);
+	}
+
+	private ScriptExecutionResult createResult(KotlinScriptFields fields, Object scriptInstance, ScriptBindings bindings,
+			String[] resultKeys) {
 		ScriptExecutionResult executionResult = new ScriptExecutionResult(null);
+		if (resultKeys != null) {
+			for (String variableName : resultKeys) {
+				putResult(fields, scriptInstance, executionResult, variableName);
+			}
+			return executionResult;
+		}
 		for (String variableName : bindings.keySet()) {
-			putResult(executionResult, variableName);
+			putResult(fields, scriptInstance, executionResult, variableName);
 		}
-		putResult(executionResult, ScriptBindings.SCRIPT_ID_VAR);
+		putResult(fields, scriptInstance, executionResult, ScriptBindings.SCRIPT_ID_VAR);
 
 		return executionResult;
 	}
 
 	@Override
-	public void executeEmbedded(int parentScriptId, int scriptId, GameScript<CompiledKotlinScript> script,
+	public void executeEmbedded(int parentScriptId, int scriptId, GameScript<Object> script,
 								EmbeddedScriptInvoker embeddedScriptInvoker, ScriptBindings bindings) throws Exception {
 		throw new RuntimeException("Embedded synchronous script invokes not supported in Kotlin.");
-/*		PerThreadGameScript<CompiledKotlinScript> threadScript = (PerThreadGameScript<CompiledKotlinScript>) script;
+/*		PerThreadGameScript<Object> threadScript = (PerThreadGameScript<Object>) script;
 		engine.put(ScriptBindings.SCRIPT_PARENT_ID_VAR, parentScriptId);
 		engine.put(ScriptBindings.SCRIPT_ID_VAR, scriptId);
 		embeddedScriptInvoker.setParentScriptId(scriptId);
@@ -130,15 +196,50 @@ public class KotlinScriptExecutor implements ScriptExecutor<CompiledKotlinScript
 		embeddedScriptInvoker.setParentScriptId(parentScriptId);*/
 	}
 
-	private void putResult(ScriptExecutionResult executionResult, String variableName) {
+	/**
+	 * Compiles a script the first time it is executed by this executor
+	 */
+	private CompiledScriptContext getCompiledScript(int scriptId, PerThreadGameScript<Object> script) throws Exception {
+		CompiledScriptContext result = compiledScripts.get(scriptId);
+		if(result != null) {
+			return result;
+		}
+		if(engine == null) {
+			engine = (KotlinJsr223JvmLocalScriptEngine) new KotlinJsr223JvmLocalScriptEngineFactory().getScriptEngine();
+		}
+		final ScriptContext scriptContext = new SimpleScriptContext();
+		scriptContext.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+		result = new CompiledScriptContext(scriptContext,
+				(CompiledKotlinScript) engine.compile(script.getContent(), scriptContext));
+		compiledScripts.put(scriptId, result);
+		totalCompilations++;
+		return result;
+	}
+
+	/**
+	 * Returns the amount of scripts compiled by this executor
+	 */
+	int getTotalCompilations() {
+		return totalCompilations;
+	}
+
+	/**
+	 * Returns the amount of entries in a script's REPL history
+	 * @return -1 if the script has not been compiled by this executor
+	 */
+	int getReplHistorySize(int scriptId) {
+		final CompiledScriptContext compiledScriptContext = compiledScripts.get(scriptId);
+		if(compiledScriptContext == null) {
+			return -1;
+		}
+		return compiledScriptContext.getHistorySize();
+	}
+
+	private void putResult(KotlinScriptFields fields, Object scriptInstance, ScriptExecutionResult executionResult, String variableName) {
 		try {
-			executionResult.put(variableName, engine.eval(variableName));
+			fields.putResult(scriptInstance, variableName, executionResult);
 		} catch (Exception e) {
-			if(e.getMessage().contains("unresolved reference")) {
-				executionResult.remove(variableName);
-			} else {
-				e.printStackTrace();
-			}
+			e.printStackTrace();
 		}
 	}
 
@@ -169,4 +270,68 @@ public class KotlinScriptExecutor implements ScriptExecutor<CompiledKotlinScript
 			return result.getClass().getName();
 		}
 	}
+
+	/**
+	 * A compiled script and the {@link ScriptContext} holding its REPL state. Each script has its own
+	 * REPL state so that the history can be rewound to the script after every invocation.
+	 */
+	private static class CompiledScriptContext {
+		private final ScriptContext scriptContext;
+		private final CompiledKotlinScript compiledScript;
+		private final ILineId lineId;
+
+		private KotlinScriptFields fields;
+
+		public CompiledScriptContext(ScriptContext scriptContext, CompiledKotlinScript compiledScript) {
+			this.scriptContext = scriptContext;
+			this.compiledScript = compiledScript;
+			this.lineId = compiledScript.getCompiledData().getLineId();
+		}
+
+		/**
+		 * Returns the script instance created by the most recent evaluation of the script
+		 */
+		public Object getScriptInstance() {
+			return getReplState().getState2().getHistory().peek().getItem().getInstance();
+		}
+
+		/**
+		 * Returns the {@link KotlinScriptFields} for a script instance
+		 */
+		public KotlinScriptFields getFields(Object scriptInstance) {
+			if(fields == null || fields.getScriptClass() != scriptInstance.getClass()) {
+				fields = new KotlinScriptFields(scriptInstance.getClass());
+			}
+			return fields;
+		}
+
+		/**
+		 * Removes lines added to the REPL history by the previous invocation so that memory usage stays bounded
+		 */
+		public void resetHistory() {
+			final AggregatedReplStageState<?, EvalClassWithInstanceAndLoader> replState = getReplState();
+			replState.getState1().getHistory().resetTo(lineId);
+			replState.getState2().getHistory().reset();
+		}
+
+		/**
+		 * Returns the combined size of the compiler and evaluator REPL histories
+		 */
+		public int getHistorySize() {
+			final AggregatedReplStageState<?, EvalClassWithInstanceAndLoader> replState = getReplState();
+			return replState.getState1().getHistory().size() + replState.getState2().getHistory().size();
+		}
+
+		@SuppressWarnings("unchecked")
+		private AggregatedReplStageState<?, EvalClassWithInstanceAndLoader> getReplState() {
+			final Object replState = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).get(
+					KotlinJsr223JvmScriptEngineBaseKt.KOTLIN_SCRIPT_STATE_BINDINGS_KEY);
+			if(!(replState instanceof AggregatedReplStageState)) {
+				throw new IllegalStateException("Expected Kotlin REPL state of type " + AggregatedReplStageState.class.getName() +
+						" but found " + (replState == null ? "null" : replState.getClass().getName()));
+			}
+			//The JSR-223 engine always creates its REPL state with an instance-keeping evaluator
+			return (AggregatedReplStageState<?, EvalClassWithInstanceAndLoader>) replState;
+		}
+	}
 }
@@ -24,24 +24,21 @@
 package org.mini2Dx.miniscript.kotlin;
 
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 
-import org.jetbrains.kotlin.cli.common.repl.KotlinJsr223JvmScriptEngineBase.CompiledKotlinScript;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
 import org.mini2Dx.miniscript.core.exception.NoSuchScriptException;
 import org.mini2Dx.miniscript.core.exception.ScriptExecutorUnavailableException;
-import org.mini2Dx.miniscript.core.util.ReadWriteBlockingQueue;
 import org.mini2Dx.miniscript.core.util.ReadWriteMap;
 
 /**
  * An implementation of {@link ScriptExecutorPool} for Kotlin-based scripts
  */
-public class KotlinScriptExecutorPool implements ScriptExecutorPool<CompiledKotlinScript> {
-	private final Map<Integer, GameScript<CompiledKotlinScript>> scripts = new ReadWriteMap<>();
+public class KotlinScriptExecutorPool implements ScriptExecutorPool<Object> {
+	private final Map<Integer, GameScript<Object>> scripts = new ReadWriteMap<>();
 	private final Map<String, Integer> filepathToScriptId = new ReadWriteMap<String, Integer>();
 	private final Map<Integer, String> scriptIdToFilepath = new ReadWriteMap<Integer, String>();
-	private final BlockingQueue<ScriptExecutor<CompiledKotlinScript>> executors;
+	private final ScriptExecutorQueue<Object> executors;
 	private final GameScriptingEngine gameScriptingEngine;
 	private final SynchronizedObjectPool<KotlinEmbeddedScriptInvoker> embeddedScriptInvokerPool = new SynchronizedObjectPool<KotlinEmbeddedScriptInvoker>() {
 		@Override
@@ -51,16 +48,36 @@ public class KotlinScriptExecutorPool implements ScriptExecutorPool<CompiledKotl
 	};
 
 	public KotlinScriptExecutorPool(GameScriptingEngine gameScriptingEngine, int poolSize) {
+		this(gameScriptingEngine, new NoopClasspathScriptProvider(), poolSize);
+	}
+
+	public KotlinScriptExecutorPool(GameScriptingEngine gameScriptingEngine,
+	                                ClasspathScriptProvider classpathScriptProvider, int poolSize) {
 		this.gameScriptingEngine = gameScriptingEngine;
-		executors = new ReadWriteBlockingQueue<>(poolSize);
 
-		for (int i = 0; i < poolSize; i++) {
-			executors.offer(new KotlinScriptExecutor(this));
+		if(classpathScriptProvider.getTotalScripts() > 0) {
+			for(int i = 0; i < classpathScriptProvider.getTotalScripts(); i++) {
+				GameScript.offsetIds(i - 1);
+				final Class<?> scriptClass = classpathScriptProvider.getClasspathScript(i);
+				final KotlinClasspathGameScript script = new KotlinClasspathGameScript(scriptClass);
+				int key = script.getId();
+				scripts.put(key, script);
+				String filepath = classpathScriptProvider.getFilepath(key);
+				filepathToScriptId.put(filepath, key);
+				scriptIdToFilepath.put(key, filepath);
+			}
 		}
+
+		executors = new ScriptExecutorQueue<Object>(poolSize) {
+			@Override
+			protected ScriptExecutor<Object> construct() {
+				return new KotlinScriptExecutor(KotlinScriptExecutorPool.this);
+			}
+		};
 	}
 
 	@Override
-	public void release(ScriptExecutor<CompiledKotlinScript> executor) {
+	public void release(ScriptExecutor<Object> executor) {
 		try {
 			executors.put(executor);
 		} catch (InterruptedException e) {
@@ -78,18 +95,14 @@ public class KotlinScriptExecutorPool implements ScriptExecutorPool<CompiledKotl
 		return scriptIdToFilepath.get(scriptId);
 	}
 
-	GameScript<CompiledKotlinScript> getScript(int id) {
+	GameScript<Object> getScript(int id) {
 		return scripts.get(id);
 	}
 
 	@Override
 	public int preCompileScript(String filepath, String scriptContent) throws InsufficientCompilersException {
-		ScriptExecutor<CompiledKotlinScript> executor = executors.poll();
-		if (executor == null) {
-			throw new InsufficientCompilersException();
-		}
-		GameScript<CompiledKotlinScript> script = executor.compile(scriptContent);
-		executor.release();
+		//Scripts are compiled by each executor on first use so no executor is needed here
+		GameScript<Object> script = new PerThreadGameScript<Object>(scriptContent);
 		scripts.put(script.getId(), script);
 		filepathToScriptId.put(filepath, script.getId());
 		scriptIdToFilepath.put(script.getId(), filepath);
@@ -99,7 +112,7 @@ public class KotlinScriptExecutorPool implements ScriptExecutorPool<CompiledKotl
 	@Override
 	public ScriptExecutionTask<?> execute(int taskId, int scriptId, ScriptBindings scriptBindings,
 			ScriptInvocationListener invocationListener, boolean syncCall) {
-		ScriptExecutor<CompiledKotlinScript> executor = allocateExecutor();
+		ScriptExecutor<Object> executor = allocateExecutor();
 		if (executor == null) {
 			throw new ScriptExecutorUnavailableException(scriptId);
 		}
@@ -107,11 +120,11 @@ public class KotlinScriptExecutorPool implements ScriptExecutorPool<CompiledKotl
 			executor.release();
 			throw new NoSuchScriptException(scriptId);
 		}
-		return new ScriptExecutionTask<CompiledKotlinScript>(taskId, gameScriptingEngine, executor,
+		return new ScriptExecutionTask<Object>(taskId, gameScriptingEngine, executor,
 				scriptId, scripts.get(scriptId), scriptBindings, invocationListener, syncCall);
 	}
 
-	private ScriptExecutor<CompiledKotlinScript> allocateExecutor() {
+	private ScriptExecutor<Object> allocateExecutor() {
 		try {
 			return executors.take();
 		} catch (InterruptedException e) {
@@ -120,6 +133,11 @@ public class KotlinScriptExecutorPool implements ScriptExecutorPool<CompiledKotl
 		return null;
 	}
 
+	@Override
+	public ScriptExecutorQueue<Object> getExecutorQueue() {
+		return executors;
+	}
+
 	@Override
 	public GameScriptingEngine getGameScriptingEngine() {
 		return gameScriptingEngine;
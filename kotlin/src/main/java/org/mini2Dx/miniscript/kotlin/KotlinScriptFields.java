@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.kotlin;
+
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the top-level variables of a Kotlin script directly from the fields of its script class
+ */
+class KotlinScriptFields {
+	private final Class<?> scriptClass;
+	private final Map<String, Field> fields = new HashMap<String, Field>();
+
+	public KotlinScriptFields(Class<?> scriptClass) {
+		this.scriptClass = scriptClass;
+
+		for(Field field : scriptClass.getDeclaredFields()) {
+			if(Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			field.setAccessible(true);
+			fields.put(field.getName(), field);
+		}
+	}
+
+	/**
+	 * Returns if the script declares a variable
+	 * @param variableName The variable name
+	 * @return False if the script does not declare the variable
+	 */
+	public boolean hasVariable(String variableName) {
+		return fields.containsKey(variableName);
+	}
+
+	/**
+	 * Copies a script variable into a {@link ScriptExecutionResult}. Primitive variables are copied without boxing.
+	 * Variables not declared by the script are removed from the result.
+	 * @param instance The script instance
+	 * @param variableName The variable name
+	 * @param executionResult The {@link ScriptExecutionResult} to store the value in
+	 */
+	public void putResult(Object instance, String variableName, ScriptExecutionResult executionResult) throws IllegalAccessException {
+		final Field field = fields.get(variableName);
+		if(field == null) {
+			executionResult.remove(variableName);
+			return;
+		}
+		final Class<?> type = field.getType();
+		if(type == int.class) {
+			executionResult.putInt(variableName, field.getInt(instance));
+		} else if(type == float.class) {
+			executionResult.putFloat(variableName, field.getFloat(instance));
+		} else if(type == double.class) {
+			executionResult.putDouble(variableName, field.getDouble(instance));
+		} else if(type == boolean.class) {
+			executionResult.putBoolean(variableName, field.getBoolean(instance));
+		} else {
+			executionResult.put(variableName, field.get(instance));
+		}
+	}
+
+	public Class<?> getScriptClass() {
+		return scriptClass;
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.kotlin;
+
+import kotlin.script.templates.standard.ScriptTemplateWithBindings;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.GeneratedClasspathScriptProvider;
+import org.mini2Dx.miniscript.core.ScriptBindingType;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link KotlinScriptExecutor}
+ */
+public class KotlinScriptExecutorTest {
+
+	@Test
+	public void testRepeatedExecutionOfCompiledScript() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final KotlinScriptExecutorPool executorPool = new KotlinScriptExecutorPool(dummyGameScriptingEngine, 1);
+		final int scriptId = executorPool.preCompileScript("repeated.kts",
+				"val result: String = bindings[\"value\"] as String + \"!\"");
+		final KotlinScriptExecutor executor = new KotlinScriptExecutor(executorPool);
+
+		for(int i = 0; i < 5; i++) {
+			final ScriptBindings bindings = new ScriptBindings();
+			bindings.put("value", "value" + i);
+			final ScriptExecutionResult result = executor.execute(scriptId, executorPool.getScript(scriptId),
+					bindings, new String[] { "result" });
+			Assert.assertEquals("value" + i + "!", result.get("result"));
+			//One compiled line and one evaluation, previous evaluations are discarded
+			Assert.assertEquals(2, executor.getReplHistorySize(scriptId));
+		}
+		Assert.assertEquals(1, executor.getTotalCompilations());
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testPrimitiveResultsReadWithoutBoxing() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final KotlinScriptExecutorPool executorPool = new KotlinScriptExecutorPool(dummyGameScriptingEngine, 1);
+		final int scriptId = executorPool.preCompileScript("primitives.kts",
+				"val intValue: Int = 101\nval booleanValue: Boolean = true\nval stringValue: String = \"hello\"");
+		final KotlinScriptExecutor executor = new KotlinScriptExecutor(executorPool);
+
+		final ScriptExecutionResult result = executor.execute(scriptId, executorPool.getScript(scriptId),
+				new ScriptBindings(), new String[] { "intValue", "booleanValue", "stringValue", "undeclaredValue" });
+		Assert.assertEquals(ScriptBindingType.INT, result.getType("intValue"));
+		Assert.assertEquals(101, result.getInt("intValue"));
+		Assert.assertEquals(ScriptBindingType.BOOLEAN, result.getType("booleanValue"));
+		Assert.assertTrue(result.getBoolean("booleanValue"));
+		Assert.assertEquals("hello", result.get("stringValue"));
+		Assert.assertFalse(result.containsKey("undeclaredValue"));
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testExecutionOfClasspathScript() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final KotlinScriptExecutorPool executorPool = new KotlinScriptExecutorPool(dummyGameScriptingEngine,
+				new GeneratedClasspathScriptProvider() {
+					@Override
+					public Map<String, Object> getGeneratedScripts() {
+						final Map<String, Object> result = new HashMap<String, Object>();
+						result.put("classpath.kts", ClasspathScript.class);
+						return result;
+					}
+				}, 1);
+		final int scriptId = executorPool.getCompiledScriptId("classpath.kts");
+		Assert.assertTrue(executorPool.getScript(scriptId) instanceof KotlinClasspathGameScript);
+		Assert.assertTrue(executorPool.getScript(scriptId).hasScript());
+		Assert.assertSame(ClasspathScript.class, executorPool.getScript(scriptId).getScript());
+		final KotlinScriptExecutor executor = new KotlinScriptExecutor(executorPool);
+
+		final ScriptBindings bindings = new ScriptBindings();
+		bindings.put("stringValue", "hello");
+		bindings.put("unusedValue", 77);
+		final ScriptExecutionResult result = executor.execute(scriptId, executorPool.getScript(scriptId),
+				bindings, true);
+		Assert.assertEquals("hello123", result.get("stringValue"));
+		Assert.assertEquals(scriptId, result.get(ScriptBindings.SCRIPT_ID_VAR));
+		Assert.assertFalse(result.containsKey("unusedValue"));
+		dummyGameScriptingEngine.dispose();
+	}
+
+	/**
+	 * Equivalent of the class generated by the Gradle plugin for a script declaring stringValue and scriptId
+	 */
+	public static class ClasspathScript extends ScriptTemplateWithBindings {
+		private final String stringValue;
+		private final int scriptId;
+
+		public ClasspathScript(Map<String, ?> bindings) {
+			super(bindings);
+			stringValue = bindings.get("stringValue") + "123";
+			scriptId = (Integer) bindings.get(ScriptBindings.SCRIPT_ID_VAR);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.lua;
+
+import org.luaj.vm2.LoadState;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.compiler.DumpState;
+import org.mini2Dx.miniscript.core.CompiledScriptStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Stores compiled Lua chunks in a directory so that unchanged scripts do not
+ * need to be parsed again after a restart.
+ *
+ * Entries are keyed by a SHA-256 hash of the script content, chunk name and engine settings.
+ * Entries are written to a temporary file and then moved into place so that
+ * multiple processes can safely share the same directory.
+ */
+public class LuaCompiledScriptCache {
+	private static final String CACHE_VERSION = "luaj-3.0.1-1";
+
+	private final CompiledScriptStore compiledScriptStore;
+	private final boolean sandboxed;
+
+	public LuaCompiledScriptCache(Path directory, boolean sandboxed) throws IOException {
+		this.compiledScriptStore = new CompiledScriptStore(directory, ".luac");
+		this.sandboxed = sandboxed;
+	}
+
+	/**
+	 * Loads a compiled chunk from the cache
+	 * @param chunkName The chunk name of the script
+	 * @param scriptContent The script source
+	 * @return Null if the script is not in the cache or the cache entry could not be read
+	 */
+	public Prototype load(String chunkName, String scriptContent) {
+		final byte[] bytes = compiledScriptStore.read(getCacheKey(chunkName, scriptContent));
+		if(bytes == null) {
+			return null;
+		}
+		try {
+			return LoadState.undump(new ByteArrayInputStream(bytes), chunkName);
+		} catch (Exception e) {
+			//Corrupt or incompatible entry, will be replaced on store
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a compiled chunk in the cache
+	 * @param chunkName The chunk name of the script
+	 * @param scriptContent The script source
+	 * @param prototype The compiled {@link Prototype}
+	 */
+	public void store(String chunkName, String scriptContent, Prototype prototype) {
+		try {
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			DumpState.dump(prototype, outputStream, false);
+			compiledScriptStore.write(getCacheKey(chunkName, scriptContent), outputStream.toByteArray());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	Path getCacheFile(String chunkName, String scriptContent) {
+		return compiledScriptStore.getFile(getCacheKey(chunkName, scriptContent));
+	}
+
+	private String getCacheKey(String chunkName, String scriptContent) {
+		return CompiledScriptStore.createKey(CACHE_VERSION, String.valueOf(sandboxed), chunkName, scriptContent);
+	}
+
+	public Path getDirectory() {
+		return compiledScriptStore.getDirectory();
+	}
+}
@@ -28,6 +28,9 @@ import org.mini2Dx.miniscript.core.GameScriptingEngine;
 import org.mini2Dx.miniscript.core.ScriptExecutorPool;
 import org.mini2Dx.miniscript.core.ThreadPoolProvider;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * An implementation of {@link GameScriptingEngine} for Lua scripts
  */
@@ -118,6 +121,59 @@ public class LuaGameScriptingEngine extends GameScriptingEngine {
 		return new LuaScriptExecutorPool(this, classpathScriptProvider, poolSize, sandboxed);
 	}
 
+	/**
+	 * Returns if scripts are compiled to JVM bytecode when pre-compiled
+	 * @return True if bytecode compilation is enabled
+	 */
+	public boolean isBytecodeCompilationEnabled() {
+		return ((LuaScriptExecutorPool) getScriptExecutorPool()).isBytecodeCompilationEnabled();
+	}
+
+	/**
+	 * Sets if scripts should be compiled to JVM bytecode (via LuaJC) when pre-compiled.
+	 * Scripts compiled before this is called are unaffected.
+	 *
+	 * Note: Apache BCEL must be on the classpath to enable bytecode compilation.
+	 *
+	 * @param bytecodeCompilationEnabled True if scripts should be compiled to bytecode
+	 */
+	public void setBytecodeCompilationEnabled(boolean bytecodeCompilationEnabled) {
+		if(bytecodeCompilationEnabled) {
+			try {
+				Class.forName("org.apache.bcel.generic.ClassGen");
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Apache BCEL is required for Lua bytecode compilation");
+			}
+		}
+		((LuaScriptExecutorPool) getScriptExecutorPool()).setBytecodeCompilationEnabled(bytecodeCompilationEnabled);
+	}
+
+	/**
+	 * Sets the directory to cache compiled scripts in. Scripts pre-compiled after this is called
+	 * are loaded from the directory if their content is unchanged. The directory can be shared
+	 * by multiple processes.
+	 *
+	 * @param directory The cache directory or null to disable caching
+	 * @throws IOException Thrown if the directory could not be created
+	 */
+	public void setCompiledScriptCacheDirectory(Path directory) throws IOException {
+		final LuaScriptExecutorPool executorPool = (LuaScriptExecutorPool) getScriptExecutorPool();
+		if(directory == null) {
+			executorPool.setCompiledScriptCache(null);
+			return;
+		}
+		executorPool.setCompiledScriptCache(new LuaCompiledScriptCache(directory, executorPool.isSandboxed()));
+	}
+
+	/**
+	 * Returns the directory compiled scripts are cached in
+	 * @return Null if caching is disabled
+	 */
+	public Path getCompiledScriptCacheDirectory() {
+		final LuaCompiledScriptCache compiledScriptCache = ((LuaScriptExecutorPool) getScriptExecutorPool()).getCompiledScriptCache();
+		return compiledScriptCache == null ? null : compiledScriptCache.getDirectory();
+	}
+
 	@Override
 	public boolean isSandboxingSupported() {
 		return true;
@@ -0,0 +1,117 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.lua;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+import org.mini2Dx.miniscript.core.GameScript;
+
+/**
+ * An implementation of {@link GameScript} for Lua scripts that have been compiled once
+ * to an immutable {@link Prototype}. A {@link Prototype} has no environment so each
+ * {@link LuaScriptExecutor} creates its own closure from it bound to its {@link Globals}.
+ */
+public class LuaPrototypeGameScript extends GameScript<LuaValue> {
+	private final String chunkName;
+	private final String content;
+
+	private volatile Prototype prototype;
+
+	/**
+	 * Constructor
+	 * @param chunkName The chunk name used in error messages
+	 * @param content The script source
+	 * @param prototype The compiled script or null if the script could not be compiled
+	 */
+	public LuaPrototypeGameScript(String chunkName, String content, Prototype prototype) {
+		super();
+		this.chunkName = chunkName;
+		this.content = content;
+		this.prototype = prototype;
+	}
+
+	/**
+	 * Creates a closure of this script bound to a {@link Globals} instance
+	 * @param globals The {@link Globals} to use as the script's environment
+	 * @return A new closure
+	 */
+	public LuaValue createClosure(Globals globals) {
+		final Prototype prototype = this.prototype;
+		if(prototype == null) {
+			//Re-throws the compilation error on execution
+			return new LuaClosure(LuaScriptExecutorPool.compilePrototype(chunkName, content), globals);
+		}
+		return new LuaClosure(prototype, globals);
+	}
+
+	/**
+	 * Not supported as a {@link Prototype} only becomes executable once bound to a {@link Globals}
+	 * instance. Use {@link #getPrototype()} or {@link #createClosure(Globals)} instead.
+	 */
+	@Override
+	public LuaValue getScript() {
+		throw new UnsupportedOperationException("Lua prototype scripts must be bound with createClosure(Globals)");
+	}
+
+	@Override
+	public boolean hasScript() {
+		return prototype != null;
+	}
+
+	/**
+	 * Replaces this script with the {@link Prototype} of a {@link LuaClosure}.
+	 * The closure's environment is discarded as each executor binds its own.
+	 * @param script A {@link LuaClosure}
+	 */
+	@Override
+	public void setScript(LuaValue script) {
+		if(!(script instanceof LuaClosure)) {
+			throw new IllegalArgumentException("Lua prototype scripts can only be replaced by a LuaClosure");
+		}
+		setPrototype(((LuaClosure) script).p);
+	}
+
+	/**
+	 * Returns the compiled {@link Prototype} of this script
+	 * @return Null if the script could not be compiled
+	 */
+	public Prototype getPrototype() {
+		return prototype;
+	}
+
+	/**
+	 * Replaces the compiled {@link Prototype} of this script.
+	 * Executors re-bind the script on its next invocation.
+	 * @param prototype The new {@link Prototype}
+	 */
+	public void setPrototype(Prototype prototype) {
+		this.prototype = prototype;
+	}
+
+	public String getContent() {
+		return content;
+	}
+}
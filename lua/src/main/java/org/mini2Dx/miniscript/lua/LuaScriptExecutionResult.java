@@ -0,0 +1,55 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.lua;
+
+import org.luaj.vm2.LuaValue;
+import org.mini2Dx.miniscript.core.LazyScriptExecutionResult;
+
+/**
+ * Stores the variable mappings after a Lua script's execution, converting them when read
+ */
+public class LuaScriptExecutionResult extends LazyScriptExecutionResult<LuaValue> {
+
+	@Override
+	protected void convert(String key, LuaValue value) {
+		switch (value.type()) {
+		case LuaValue.TSTRING:
+			put(key, value.tojstring());
+			break;
+		case LuaValue.TNUMBER:
+			if(value.isinttype()) {
+				putInt(key, value.toint());
+			} else {
+				putDouble(key, value.todouble());
+			}
+			break;
+		case LuaValue.TBOOLEAN:
+			putBoolean(key, value.toboolean());
+			break;
+		case LuaValue.TUSERDATA:
+			put(key, value.checkuserdata(Object.class));
+			break;
+		}
+	}
+}
@@ -24,31 +24,105 @@
 package org.mini2Dx.miniscript.lua;
 
 import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
-import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.ThreeArgFunction;
 import org.luaj.vm2.lib.jse.CoerceJavaToLua;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.ScriptSkippedException;
+import org.mini2Dx.miniscript.core.util.IntMap;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 
 /**
- * An implementation of {@link ScriptExecutor} for Lua scripts
+ * An implementation of {@link ScriptExecutor} for Lua scripts.
+ *
+ * Each executor owns its {@link Globals} and the scripts compiled against them.
+ * Globals are reset to their initial state after each invocation, so globals
+ * defined by a script or its bindings do not persist to the next invocation.
+ * The reset also covers the library tables referenced by the initial globals
+ * (e.g. string and math) but not tables nested inside them. Writes made with
+ * rawset() bypass tracking and are not removed.
  */
 public class LuaScriptExecutor implements ScriptExecutor<LuaValue> {
+	/**
+	 * The amount of invocations a coerced value is kept for after it was last bound
+	 */
+	static final int COERCION_CACHE_EXPIRY = 64;
+	/**
+	 * The maximum amount of coerced values kept at once
+	 */
+	private static final int COERCION_CACHE_MAX_SIZE = 256;
+
 	private final LuaScriptExecutorPool executorPool;
+	private final Globals globals;
+	private final LuaTable[] trackedTables;
+	private final LuaTable[] initialContents;
+	private final LuaValue[][] initialKeys;
+	private final LuaValue[][] initialValues;
+	private final LuaTable trackingMetatable = new LuaTable();
+	private final ArrayList<LuaValue> writtenTables = new ArrayList<LuaValue>();
+	private final ArrayList<LuaValue> writtenKeys = new ArrayList<LuaValue>();
+	private final IntMap<CompiledScript> compiledScripts = new IntMap<CompiledScript>();
+	private final IdentityHashMap<Object, CoercedValue> coercionCache = new IdentityHashMap<Object, CoercedValue>();
+	private int invocationCount;
 
 	public LuaScriptExecutor(LuaScriptExecutorPool executorPool) {
 		this.executorPool = executorPool;
+		this.globals = executorPool.createGlobals();
+
+		final ArrayList<LuaTable> tables = new ArrayList<LuaTable>();
+		tables.add(globals);
+		final LuaValue[] globalKeys = globals.keys();
+		for(int i = 0; i < globalKeys.length; i++) {
+			final LuaValue value = globals.rawget(globalKeys[i]);
+			if(value.istable() && !tables.contains(value)) {
+				tables.add(value.checktable());
+			}
+		}
+		trackedTables = tables.toArray(new LuaTable[tables.size()]);
+		initialContents = new LuaTable[trackedTables.length];
+		initialKeys = new LuaValue[trackedTables.length][];
+		initialValues = new LuaValue[trackedTables.length][];
+
+		trackingMetatable.rawset(LuaValue.NEWINDEX, new TrackingNewIndexFunction());
+		for(int i = 0; i < trackedTables.length; i++) {
+			initialContents[i] = new LuaTable();
+			initialKeys[i] = trackedTables[i].keys();
+			initialValues[i] = new LuaValue[initialKeys[i].length];
+			for(int j = 0; j < initialKeys[i].length; j++) {
+				initialValues[i][j] = trackedTables[i].rawget(initialKeys[i][j]);
+				initialContents[i].rawset(initialKeys[i][j], initialValues[i][j]);
+			}
+			trackedTables[i].setmetatable(trackingMetatable);
+		}
 	}
 
 	@Override
 	public GameScript<LuaValue> compile(String script) {
-		return new PerThreadGameScript<LuaValue>(script);
+		return executorPool.compileScript("main", script);
 	}
 
 	@Override
 	public ScriptExecutionResult execute(int scriptId, GameScript<LuaValue> script, ScriptBindings bindings, boolean returnResult)
 			throws Exception {
-		final Globals globals = executorPool.getLocalGlobals();
+		return execute(scriptId, script, bindings, returnResult, null);
+	}
+
+	@Override
+	public ScriptExecutionResult execute(int scriptId, GameScript<LuaValue> script, ScriptBindings bindings, String[] resultKeys)
+			throws Exception {
+		return execute(scriptId, script, bindings, true, resultKeys);
+	}
+
+	private ScriptExecutionResult execute(int scriptId, GameScript<LuaValue> script, ScriptBindings bindings,
+	                                      boolean returnResult, String[] resultKeys) throws Exception {
+		invocationCount++;
+		if(invocationCount % COERCION_CACHE_EXPIRY == 0) {
+			evictCoercedValues();
+		}
 
 		final LuaEmbeddedScriptInvoker embeddedScriptInvoker = executorPool.getEmbeddedScriptInvokerPool().allocate();
 		embeddedScriptInvoker.setScriptBindings(bindings);
@@ -56,84 +130,54 @@ public class LuaScriptExecutor implements ScriptExecutor<LuaValue> {
 		embeddedScriptInvoker.setParentScriptId(scriptId);
 		
 		for (String variableName : bindings.keySet()) {
-			globals.set(variableName, CoerceJavaToLua.coerce(bindings.get(variableName)));
+			globals.set(variableName, toLuaValue(bindings, variableName));
 		}
-		globals.set(ScriptBindings.SCRIPT_PARENT_ID_VAR, CoerceJavaToLua.coerce(-1));
-		globals.set(ScriptBindings.SCRIPT_ID_VAR, CoerceJavaToLua.coerce(scriptId));
-		globals.set(ScriptBindings.SCRIPT_INVOKE_VAR, CoerceJavaToLua.coerce(embeddedScriptInvoker));
+		globals.set(ScriptBindings.SCRIPT_PARENT_ID_VAR, LuaValue.valueOf(-1));
+		globals.set(ScriptBindings.SCRIPT_ID_VAR, LuaValue.valueOf(scriptId));
+		globals.set(ScriptBindings.SCRIPT_INVOKE_VAR, coerce(embeddedScriptInvoker));
 
-		if (!script.hasScript()) {
-			script.setScript(executorPool.compileWithGlobals(globals, script));
-		}
-		
 		try {
-			script.getScript().invoke();
-		} catch (Exception e) {
-			if(e instanceof ScriptSkippedException || e.getCause() instanceof ScriptSkippedException) {
-				throw new ScriptSkippedException();
-			} else {
-				throw e;
+			try {
+				getCompiledScript(script).invoke();
+			} catch (Exception e) {
+				if(e instanceof ScriptSkippedException || e.getCause() instanceof ScriptSkippedException) {
+					throw new ScriptSkippedException();
+				} else {
+					throw e;
+				}
 			}
-		}
 
-		executorPool.getEmbeddedScriptInvokerPool().release(embeddedScriptInvoker);
+			executorPool.getEmbeddedScriptInvokerPool().release(embeddedScriptInvoker);
 
-		if (!returnResult) {
-			for (String variableName : bindings.keySet()) {
-				globals.set(variableName, CoerceJavaToLua.coerce(null));
+			if (!returnResult) {
+				return null;
 			}
-			return null;
-		}		
-		ScriptExecutionResult executionResult = new ScriptExecutionResult(null);
-		
-		LuaValue [] keys = globals.keys();
-		for(int i = 0; i < keys.length; i++) {
-			LuaValue key = keys[i];
-			LuaValue value = globals.get(key);
-			switch ( value.type() ) {
-			case LuaValue.TNIL:
-				continue;
-			case LuaValue.TSTRING:
-				executionResult.put(key.tojstring(), value.tojstring());
-				continue;
-			case LuaValue.TNUMBER:
-				if(value.isinttype()) {
-					executionResult.put(key.tojstring(), value.toint());
-				} else {
-					executionResult.put(key.tojstring(), value.todouble());
+			final LuaScriptExecutionResult executionResult = new LuaScriptExecutionResult();
+			if(resultKeys != null) {
+				for(int i = 0; i < resultKeys.length; i++) {
+					putResult(executionResult, bindings, resultKeys[i], globals.get(resultKeys[i]));
 				}
-				continue;
-			case LuaValue.TBOOLEAN:
-				executionResult.put(key.tojstring(), value.toboolean());
-				continue;
-			case LuaValue.TUSERDATA:
-				if(bindings.containsKey(key.tojstring())) {
-					executionResult.put(key.tojstring(), value.checkuserdata(Object.class));
+			} else {
+				final LuaValue [] keys = globals.keys();
+				for(int i = 0; i < keys.length; i++) {
+					putResult(executionResult, bindings, keys[i].tojstring(), globals.get(keys[i]));
 				}
-				continue;
 			}
+			return executionResult;
+		} finally {
+			resetGlobals();
 		}
-		
-		for (String variableName : bindings.keySet()) {
-			globals.set(variableName, CoerceJavaToLua.coerce(null));
-		}
-		return executionResult;
 	}
 
 	@Override
 	public void executeEmbedded(int parentScriptId, int scriptId, GameScript<LuaValue> script,
 								EmbeddedScriptInvoker embeddedScriptInvoker, ScriptBindings bindings) throws Exception {
-		final Globals globals = executorPool.getLocalGlobals();
-		globals.set(ScriptBindings.SCRIPT_ID_VAR, CoerceJavaToLua.coerce(scriptId));
-		globals.set(ScriptBindings.SCRIPT_PARENT_ID_VAR, CoerceJavaToLua.coerce(parentScriptId));
+		globals.set(ScriptBindings.SCRIPT_ID_VAR, LuaValue.valueOf(scriptId));
+		globals.set(ScriptBindings.SCRIPT_PARENT_ID_VAR, LuaValue.valueOf(parentScriptId));
 		embeddedScriptInvoker.setParentScriptId(scriptId);
 
-		if (!script.hasScript()) {
-			script.setScript(executorPool.compileWithGlobals(globals, script));
-		}
-
 		try {
-			script.getScript().invoke();
+			getCompiledScript(script).invoke();
 		} catch (Exception e) {
 			if(e instanceof ScriptSkippedException || e.getCause() instanceof ScriptSkippedException) {
 				throw new ScriptSkippedException();
@@ -142,7 +186,7 @@ public class LuaScriptExecutor implements ScriptExecutor<LuaValue> {
 			}
 		}
 
-		globals.set(ScriptBindings.SCRIPT_ID_VAR, CoerceJavaToLua.coerce(parentScriptId));
+		globals.set(ScriptBindings.SCRIPT_ID_VAR, LuaValue.valueOf(parentScriptId));
 		embeddedScriptInvoker.setParentScriptId(parentScriptId);
 
 		LuaValue [] keys = globals.keys();
@@ -157,13 +201,13 @@ public class LuaScriptExecutor implements ScriptExecutor<LuaValue> {
 				continue;
 			case LuaValue.TNUMBER:
 				if(value.isinttype()) {
-					bindings.put(key.tojstring(), value.toint());
+					bindings.putInt(key.tojstring(), value.toint());
 				} else {
-					bindings.put(key.tojstring(), value.todouble());
+					bindings.putDouble(key.tojstring(), value.todouble());
 				}
 				continue;
 			case LuaValue.TBOOLEAN:
-				bindings.put(key.tojstring(), value.toboolean());
+				bindings.putBoolean(key.tojstring(), value.toboolean());
 				continue;
 			case LuaValue.TUSERDATA:
 				if(bindings.containsKey(key.tojstring())) {
@@ -174,6 +218,181 @@ public class LuaScriptExecutor implements ScriptExecutor<LuaValue> {
 		}
 	}
 
+	private LuaValue getCompiledScript(GameScript<LuaValue> script) {
+		final Object source = executorPool.getScriptSource(script);
+		CompiledScript result = compiledScripts.get(script.getId());
+		if(result == null || result.source != source) {
+			//Re-bind the script if it was replaced since it was last bound
+			result = new CompiledScript(source, executorPool.compileWithGlobals(globals, script));
+			compiledScripts.put(script.getId(), result);
+		}
+		return result.closure;
+	}
+
+	/**
+	 * Removes globals created during an invocation and restores globals that were replaced.
+	 * New keys are recorded by the tracking metatable's __newindex as they are written,
+	 * so only the initial entries are compared and no key array is allocated.
+	 */
+	private void resetGlobals() {
+		for(int i = 0; i < trackedTables.length; i++) {
+			if(trackedTables[i].getmetatable() != trackingMetatable) {
+				//The script replaced the metatable so new keys may not have been recorded
+				removeUntrackedKeys(i);
+				trackedTables[i].setmetatable(trackingMetatable);
+			}
+		}
+		for(int i = writtenKeys.size() - 1; i >= 0; i--) {
+			writtenTables.get(i).rawset(writtenKeys.get(i), LuaValue.NIL);
+		}
+		writtenTables.clear();
+		writtenKeys.clear();
+
+		for(int i = 0; i < trackedTables.length; i++) {
+			final LuaTable table = trackedTables[i];
+			for(int j = 0; j < initialKeys[i].length; j++) {
+				if(table.rawget(initialKeys[i][j]) != initialValues[i][j]) {
+					table.rawset(initialKeys[i][j], initialValues[i][j]);
+				}
+			}
+		}
+	}
+
+	private void removeUntrackedKeys(int tableIndex) {
+		final LuaTable table = trackedTables[tableIndex];
+		final LuaValue[] keys = table.keys();
+		for(int i = 0; i < keys.length; i++) {
+			if(initialContents[tableIndex].rawget(keys[i]).isnil()) {
+				table.rawset(keys[i], LuaValue.NIL);
+			}
+		}
+	}
+
+	private static void putResult(LuaScriptExecutionResult executionResult, ScriptBindings bindings, String key, LuaValue value) {
+		switch (value.type()) {
+		case LuaValue.TSTRING:
+		case LuaValue.TNUMBER:
+		case LuaValue.TBOOLEAN:
+			executionResult.putUnconverted(key, value);
+			return;
+		case LuaValue.TUSERDATA:
+			if(bindings.containsKey(key)) {
+				executionResult.putUnconverted(key, value);
+			}
+			return;
+		}
+	}
+
+	private LuaValue toLuaValue(ScriptBindings bindings, String variableName) {
+		final ScriptBindingType type = bindings.getType(variableName);
+		if(type == null) {
+			return LuaValue.NIL;
+		}
+		switch(type) {
+		case INT:
+			return LuaValue.valueOf(bindings.getInt(variableName));
+		case FLOAT:
+		case DOUBLE:
+			return LuaValue.valueOf(bindings.getDouble(variableName));
+		case BOOLEAN:
+			return LuaValue.valueOf(bindings.getBoolean(variableName));
+		default:
+			return coerce(bindings.get(variableName));
+		}
+	}
+
+	/**
+	 * Coerces a Java object to a {@link LuaValue}, re-using the previous coercion of the same instance.
+	 * Boxed primitives are not cached as their coercion does not allocate a wrapper.
+	 * @param value The object to coerce
+	 * @return The coerced value
+	 */
+	private LuaValue coerce(Object value) {
+		if(value == null) {
+			return LuaValue.NIL;
+		}
+		if(value instanceof LuaValue) {
+			return (LuaValue) value;
+		}
+		if(value instanceof Number || value instanceof Boolean || value instanceof Character) {
+			return CoerceJavaToLua.coerce(value);
+		}
+		CoercedValue result = coercionCache.get(value);
+		if(result == null) {
+			if(coercionCache.size() >= COERCION_CACHE_MAX_SIZE) {
+				evictCoercedValues();
+				if(coercionCache.size() >= COERCION_CACHE_MAX_SIZE) {
+					coercionCache.clear();
+				}
+			}
+			result = new CoercedValue(CoerceJavaToLua.coerce(value));
+			coercionCache.put(value, result);
+		}
+		result.lastInvocation = invocationCount;
+		return result.luaValue;
+	}
+
+	/**
+	 * Removes coerced values that have not been bound recently so that the cache
+	 * does not keep unused Java objects reachable
+	 */
+	private void evictCoercedValues() {
+		final Iterator<CoercedValue> iterator = coercionCache.values().iterator();
+		while(iterator.hasNext()) {
+			if(invocationCount - iterator.next().lastInvocation >= COERCION_CACHE_EXPIRY) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the cached coercion of a Java object without marking it as used
+	 * @param value The Java object
+	 * @return Null if the object is not cached
+	 */
+	LuaValue getCachedCoercion(Object value) {
+		final CoercedValue result = coercionCache.get(value);
+		return result == null ? null : result.luaValue;
+	}
+
+	int getTotalCachedCoercions() {
+		return coercionCache.size();
+	}
+
+	private static class CoercedValue {
+		private final LuaValue luaValue;
+		private int lastInvocation;
+
+		CoercedValue(LuaValue luaValue) {
+			this.luaValue = luaValue;
+		}
+	}
+
+	/**
+	 * Records keys added to a tracked table so that they can be removed after the invocation
+	 */
+	private class TrackingNewIndexFunction extends ThreeArgFunction {
+		@Override
+		public LuaValue call(LuaValue table, LuaValue key, LuaValue value) {
+			if(!value.isnil()) {
+				writtenTables.add(table);
+				writtenKeys.add(key);
+			}
+			table.rawset(key, value);
+			return LuaValue.NONE;
+		}
+	}
+
+	private static class CompiledScript {
+		private final Object source;
+		private final LuaValue closure;
+
+		CompiledScript(Object source, LuaValue closure) {
+			this.source = source;
+			this.closure = closure;
+		}
+	}
+
 	@Override
 	public void release() {
 		executorPool.release(this);
@@ -24,43 +24,52 @@
 package org.mini2Dx.miniscript.lua;
 
 import org.luaj.vm2.Globals;
-import org.luaj.vm2.LoadState;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.Varargs;
 import org.luaj.vm2.compiler.LuaC;
 import org.luaj.vm2.lib.*;
 import org.luaj.vm2.lib.jse.JseBaseLib;
 import org.luaj.vm2.lib.jse.JseMathLib;
 import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.luajc.JavaGen;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
 import org.mini2Dx.miniscript.core.exception.NoSuchScriptException;
 import org.mini2Dx.miniscript.core.exception.ScriptExecutorUnavailableException;
-import org.mini2Dx.miniscript.core.util.ReadWriteBlockingQueue;
 import org.mini2Dx.miniscript.core.util.ReadWriteMap;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An implementation of {@link ScriptExecutorPool} for Lua scripts
  */
 public class LuaScriptExecutorPool implements ScriptExecutorPool<LuaValue> {
-	private final Map<Long, Globals> threadCompilers = new ReadWriteMap<>();
+	private static final AtomicInteger BYTECODE_CLASS_ID = new AtomicInteger();
+
 	private final Map<Integer, GameScript<LuaValue>> scripts = new ReadWriteMap<Integer, GameScript<LuaValue>>();
 	private final Map<String, Integer> filepathToScriptId = new ReadWriteMap<String, Integer>();
 	private final Map<Integer, String> scriptIdToFilepath = new ReadWriteMap<Integer, String>();
-	private final BlockingQueue<ScriptExecutor<LuaValue>> executors;
+	private final ScriptExecutorQueue<LuaValue> executors;
 	private final GameScriptingEngine gameScriptingEngine;
 	private final ClasspathScriptProvider classpathScriptProvider;
 	private final boolean sandboxed;
+	private volatile boolean bytecodeCompilationEnabled = false;
+	private volatile LuaCompiledScriptCache compiledScriptCache;
 	private final SynchronizedObjectPool<LuaEmbeddedScriptInvoker> embeddedScriptInvokerPool = new SynchronizedObjectPool<LuaEmbeddedScriptInvoker>() {
 		@Override
 		protected LuaEmbeddedScriptInvoker construct() {
 			return new LuaEmbeddedScriptInvoker(gameScriptingEngine, LuaScriptExecutorPool.this);
 		}
 	};
-	
-	private Globals sandboxedGlobals;
 
 	public LuaScriptExecutorPool(GameScriptingEngine gameScriptingEngine,
 	                             ClasspathScriptProvider classpathScriptProvider,
@@ -81,25 +90,12 @@ public class LuaScriptExecutorPool implements ScriptExecutorPool<LuaValue> {
 			}
 		}
 		
-		executors = new ReadWriteBlockingQueue<>(poolSize);
-
-		for (int i = 0; i < poolSize; i++) {
-			executors.offer(new LuaScriptExecutor(this));
-		}
-		
-		if(sandboxed) {
-			//Create sandboxed compiler
-			sandboxedGlobals = new Globals();
-			sandboxedGlobals.load(new JseBaseLib());
-			sandboxedGlobals.load(new PackageLib());
-			sandboxedGlobals.load(new StringLib());
-
-			// To load scripts, we occasionally need a math library in addition to compiler support.
-			// To limit scripts using the debug library, they must be closures, so we only install LuaC.
-			sandboxedGlobals.load(new JseMathLib());
-			LoadState.install(sandboxedGlobals);
-			LuaC.install(sandboxedGlobals);
-		}
+		executors = new ScriptExecutorQueue<LuaValue>(poolSize) {
+			@Override
+			protected ScriptExecutor<LuaValue> construct() {
+				return new LuaScriptExecutor(LuaScriptExecutorPool.this);
+			}
+		};
 	}
 
 	@Override
@@ -114,7 +110,8 @@ public class LuaScriptExecutorPool implements ScriptExecutorPool<LuaValue> {
 
 	@Override
 	public int preCompileScript(String filepath, String scriptContent) throws InsufficientCompilersException {
-		PerThreadGameScript<LuaValue> script = new PerThreadGameScript<LuaValue>(scriptContent);
+		final GameScript<LuaValue> script = bytecodeCompilationEnabled ?
+				compileBytecodeScript(filepath, scriptContent) : compileScript(filepath, scriptContent);
 		scripts.put(script.getId(), script);
 		filepathToScriptId.put(filepath, script.getId());
 		scriptIdToFilepath.put(script.getId(), filepath);
@@ -146,6 +143,11 @@ public class LuaScriptExecutorPool implements ScriptExecutorPool<LuaValue> {
 		}
 	}
 
+	@Override
+	public ScriptExecutorQueue<LuaValue> getExecutorQueue() {
+		return executors;
+	}
+
 	@Override
 	public GameScriptingEngine getGameScriptingEngine() {
 		return gameScriptingEngine;
@@ -164,56 +166,250 @@ public class LuaScriptExecutorPool implements ScriptExecutorPool<LuaValue> {
 		return null;
 	}
 	
-	public Globals getLocalGlobals() {
-		long threadId = Thread.currentThread().getId();
-		if (!threadCompilers.containsKey(threadId)) {
-			if(sandboxed) {
-				threadCompilers.put(threadId, createSandboxedGlobals());
-			} else {
-				threadCompilers.put(threadId, JsePlatform.standardGlobals());
-			}
+	Globals createGlobals() {
+		if(sandboxed) {
+			return createSandboxedGlobals();
+		}
+		return JsePlatform.standardGlobals();
+	}
+
+	/**
+	 * Compiles a script to a {@link Prototype} that can be shared by all executors
+	 * @param chunkName The chunk name used in error messages
+	 * @param scriptContent The script source
+	 * @return A new {@link LuaPrototypeGameScript}
+	 */
+	LuaPrototypeGameScript compileScript(String chunkName, String scriptContent) {
+		try {
+			return new LuaPrototypeGameScript(chunkName, scriptContent, loadPrototype(chunkName, scriptContent));
+		} catch (LuaError e) {
+			//Report compilation errors when the script is executed
+			return new LuaPrototypeGameScript(chunkName, scriptContent, null);
+		}
+	}
+
+	/**
+	 * Compiles a script to JVM bytecode via LuaJC. Falls back to a {@link LuaPrototypeGameScript} if
+	 * the script does not compile or bytecode generation fails.
+	 * @param chunkName The chunk name used in error messages
+	 * @param scriptContent The script source
+	 * @return A new {@link PerThreadClasspathGameScript} or {@link LuaPrototypeGameScript}
+	 */
+	GameScript<LuaValue> compileBytecodeScript(String chunkName, String scriptContent) {
+		final Prototype prototype;
+		try {
+			prototype = loadPrototype(chunkName, scriptContent);
+		} catch (LuaError e) {
+			//Report compilation errors when the script is executed
+			return new LuaPrototypeGameScript(chunkName, scriptContent, null);
+		}
+		try {
+			final LuaBytecodeClassLoader classLoader = new LuaBytecodeClassLoader();
+			return new PerThreadClasspathGameScript<LuaValue>(classLoader.load(prototype, chunkName));
+		} catch (Exception | LinkageError e) {
+			e.printStackTrace();
+		}
+		return new LuaPrototypeGameScript(chunkName, scriptContent, prototype);
+	}
+
+	private Prototype loadPrototype(String chunkName, String scriptContent) {
+		final LuaCompiledScriptCache compiledScriptCache = this.compiledScriptCache;
+		if(compiledScriptCache == null) {
+			return compilePrototype(chunkName, scriptContent);
+		}
+		Prototype result = compiledScriptCache.load(chunkName, scriptContent);
+		if(result != null) {
+			return result;
+		}
+		result = compilePrototype(chunkName, scriptContent);
+		compiledScriptCache.store(chunkName, scriptContent, result);
+		return result;
+	}
+
+	static Prototype compilePrototype(String chunkName, String scriptContent) {
+		try {
+			return LuaC.instance.compile(new ByteArrayInputStream(scriptContent.getBytes(StandardCharsets.UTF_8)), chunkName);
+		} catch (IOException e) {
+			throw new LuaError(e);
 		}
-		return threadCompilers.get(threadId);
 	}
 
 	public LuaValue compileWithGlobals(Globals globals, GameScript<LuaValue> gameScript) {
-		if(gameScript instanceof GlobalGameScript) {
-			return gameScript.getScript();
+		if(gameScript instanceof LuaPrototypeGameScript) {
+			return ((LuaPrototypeGameScript) gameScript).createClosure(globals);
 		} else if(gameScript instanceof PerThreadClasspathGameScript) {
 			return compileClassPathGameScript(globals, (PerThreadClasspathGameScript) gameScript);
 		} else {
-			return compilePerThreadGameScriptWithGlobals(globals, (PerThreadGameScript) gameScript);
+			return gameScript.getScript();
 		}
 	}
 
+	/**
+	 * Returns the object a script is bound to {@link Globals} from. Executors re-bind a script when this changes.
+	 * @param gameScript The script
+	 * @return The {@link Prototype} of a {@link LuaPrototypeGameScript}, otherwise the script's value
+	 */
+	Object getScriptSource(GameScript<LuaValue> gameScript) {
+		if(gameScript instanceof LuaPrototypeGameScript) {
+			return ((LuaPrototypeGameScript) gameScript).getPrototype();
+		} else if(gameScript instanceof PerThreadClasspathGameScript) {
+			//Each executor constructs its own instance of the script class
+			return gameScript;
+		}
+		return gameScript.getScript();
+	}
+
 	private LuaValue compileClassPathGameScript(Globals globals, PerThreadClasspathGameScript<LuaValue> perThreadClasspathGameScript) {
 		final LuaValue result = perThreadClasspathGameScript.compileInstance();
 		result.initupvalue1(globals);
 		return result;
 	}
 
-	private LuaValue compilePerThreadGameScriptWithGlobals(Globals globals, PerThreadGameScript<LuaValue> perThreadGameScript) {
-		if(sandboxed) {
-			return sandboxedGlobals.load(perThreadGameScript.getContent(), "main", globals);
-		} else {
-			return globals.load(perThreadGameScript.getContent());
-		}
-	}
-	
 	private Globals createSandboxedGlobals() {
 		Globals result = new Globals();
 		result.load(new JseBaseLib());
 		result.load(new PackageLib());
-		result.load(new Bit32Lib());
-		result.load(new TableLib());
-		result.load(new StringLib());
-		result.load(new JseMathLib());
+
+		final LuaValue loadedPackages = result.get("package").get("loaded");
+		for(int i = 0; i < SandboxTemplate.LIBRARY_NAMES.length; i++) {
+			final LuaTable library = copyTable(SandboxTemplate.LIBRARIES[i]);
+			result.set(SandboxTemplate.LIBRARY_NAMES[i], library);
+			loadedPackages.set(SandboxTemplate.LIBRARY_NAMES[i], library);
+		}
+
+		//math.randomseed reseeds the generator of its math.random so each environment needs its own pair
+		final LuaValue math = result.get("math");
+		final LuaValue ownMath = new MathLib().call(LuaValue.valueOf("math"), SandboxTemplate.createLibraryEnvironment());
+		math.set("random", ownMath.get("random"));
+		math.set("randomseed", ownMath.get("randomseed"));
+
+		//The string metatable is shared by every string in the JVM so it must not expose a mutable table
+		LuaString.s_metatable = SandboxTemplate.STRING_METATABLE;
+
 		result.load(new DebugLib());
 		result.set("debug", LuaValue.NIL);
 		return result;
 	}
 
+	private static LuaTable copyTable(LuaTable table) {
+		final LuaTable result = new LuaTable();
+		LuaValue key = LuaValue.NIL;
+		while(true) {
+			final Varargs next = table.next(key);
+			key = next.arg1();
+			if(key.isnil()) {
+				break;
+			}
+			result.rawset(key, next.arg(2));
+		}
+		return result;
+	}
+
 	public SynchronizedObjectPool<LuaEmbeddedScriptInvoker> getEmbeddedScriptInvokerPool() {
 		return embeddedScriptInvokerPool;
 	}
+
+	public boolean isBytecodeCompilationEnabled() {
+		return bytecodeCompilationEnabled;
+	}
+
+	public void setBytecodeCompilationEnabled(boolean bytecodeCompilationEnabled) {
+		this.bytecodeCompilationEnabled = bytecodeCompilationEnabled;
+	}
+
+	public LuaCompiledScriptCache getCompiledScriptCache() {
+		return compiledScriptCache;
+	}
+
+	public void setCompiledScriptCache(LuaCompiledScriptCache compiledScriptCache) {
+		this.compiledScriptCache = compiledScriptCache;
+	}
+
+	public boolean isSandboxed() {
+		return sandboxed;
+	}
+
+	/**
+	 * Stateless libraries loaded once and shallow copied into each sandboxed {@link Globals}.
+	 * The template tables are never modified after they are loaded. Strings index a read-only
+	 * view of the template string library so that scripts cannot modify it via their metatable.
+	 */
+	private static class SandboxTemplate {
+		static final String[] LIBRARY_NAMES = new String[] { "bit32", "table", "string", "math" };
+		static final LuaTable[] LIBRARIES = new LuaTable[LIBRARY_NAMES.length];
+		static final LuaTable STRING_METATABLE;
+
+		static {
+			final Globals globals = new Globals();
+			globals.load(new JseBaseLib());
+			globals.load(new PackageLib());
+			globals.load(new Bit32Lib());
+			globals.load(new TableLib());
+			globals.load(new StringLib());
+			globals.load(new JseMathLib());
+
+			for(int i = 0; i < LIBRARY_NAMES.length; i++) {
+				LIBRARIES[i] = globals.get(LIBRARY_NAMES[i]).checktable();
+			}
+
+			final LuaTable readOnlyString = new LuaTable();
+			readOnlyString.setmetatable(LuaValue.tableOf(new LuaValue[] {
+					LuaValue.INDEX, globals.get("string"),
+					LuaValue.NEWINDEX, new ThreeArgFunction() {
+						@Override
+						public LuaValue call(LuaValue table, LuaValue key, LuaValue value) {
+							return LuaValue.error("string library is read-only");
+						}
+					},
+					LuaValue.METATABLE, LuaValue.FALSE }));
+			STRING_METATABLE = LuaValue.tableOf(new LuaValue[] {
+					LuaValue.INDEX, readOnlyString,
+					LuaValue.METATABLE, LuaValue.FALSE });
+		}
+
+		/**
+		 * Creates the minimal environment a library needs to be loaded outside of a {@link Globals}
+		 * @return A table containing package.loaded
+		 */
+		static LuaTable createLibraryEnvironment() {
+			final LuaTable result = new LuaTable();
+			result.set("package", LuaValue.tableOf(new LuaValue[] { LuaValue.valueOf("loaded"), new LuaTable() }));
+			return result;
+		}
+	}
+
+	/**
+	 * Defines the classes generated by LuaJC for a single script. Each script has its own
+	 * {@link ClassLoader} so that its classes can be unloaded with the script.
+	 */
+	private static class LuaBytecodeClassLoader extends ClassLoader {
+		private final Map<String, byte[]> classBytes = new HashMap<String, byte[]>();
+
+		public LuaBytecodeClassLoader() {
+			super(LuaValue.class.getClassLoader());
+		}
+
+		public synchronized LuaValue load(Prototype prototype, String chunkName) throws Exception {
+			final String className = "LuaScript" + BYTECODE_CLASS_ID.incrementAndGet();
+			final JavaGen javaGen = new JavaGen(prototype, className, chunkName, false);
+			insert(javaGen);
+			return (LuaValue) loadClass(javaGen.classname).newInstance();
+		}
+
+		private void insert(JavaGen javaGen) {
+			classBytes.put(javaGen.classname.replace('/', '.'), javaGen.bytecode);
+			for(int i = 0; javaGen.inners != null && i < javaGen.inners.length; i++) {
+				insert(javaGen.inners[i]);
+			}
+		}
+
+		@Override
+		protected synchronized Class<?> findClass(String name) throws ClassNotFoundException {
+			final byte[] bytes = classBytes.remove(name);
+			if(bytes == null) {
+				return super.findClass(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
 }
@@ -0,0 +1,97 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.lua;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.mini2Dx.miniscript.core.NoopClasspathScriptProvider;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for {@link LuaCompiledScriptCache}
+ */
+public class LuaCompiledScriptCacheTest {
+	private static final String SCRIPT = "result = 1 + 2";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testStoreAndLoad() throws Exception {
+		final LuaCompiledScriptCache cache = new LuaCompiledScriptCache(temporaryFolder.getRoot().toPath(), false);
+		Assert.assertNull(cache.load("test.lua", SCRIPT));
+
+		cache.store("test.lua", SCRIPT, LuaScriptExecutorPool.compilePrototype("test.lua", SCRIPT));
+		final Prototype prototype = cache.load("test.lua", SCRIPT);
+		Assert.assertNotNull(prototype);
+
+		final Globals globals = JsePlatform.standardGlobals();
+		new LuaClosure(prototype, globals).call();
+		Assert.assertEquals(3, globals.get("result").toint());
+
+		Assert.assertNull(cache.load("test.lua", "result = 1 + 3"));
+		Assert.assertNull(new LuaCompiledScriptCache(temporaryFolder.getRoot().toPath(), true).load("test.lua", SCRIPT));
+	}
+
+	@Test
+	public void testCorruptEntryIsIgnored() throws Exception {
+		final LuaCompiledScriptCache cache = new LuaCompiledScriptCache(temporaryFolder.getRoot().toPath(), false);
+		Files.write(cache.getCacheFile("test.lua", SCRIPT), new byte[] { 1, 2, 3 });
+		Assert.assertNull(cache.load("test.lua", SCRIPT));
+
+		cache.store("test.lua", SCRIPT, LuaScriptExecutorPool.compilePrototype("test.lua", SCRIPT));
+		Assert.assertNotNull(cache.load("test.lua", SCRIPT));
+	}
+
+	@Test
+	public void testPreCompileScriptUsesCache() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final LuaScriptExecutorPool executorPool = new LuaScriptExecutorPool(dummyGameScriptingEngine, new NoopClasspathScriptProvider(), 1, false);
+		final LuaCompiledScriptCache cache = new LuaCompiledScriptCache(directory, false);
+		executorPool.setCompiledScriptCache(cache);
+
+		executorPool.preCompileScript("test.lua", SCRIPT);
+		final Path cacheFile = cache.getCacheFile("test.lua", SCRIPT);
+		Assert.assertTrue(Files.exists(cacheFile));
+		final long lastModified = Files.getLastModifiedTime(cacheFile).toMillis();
+
+		final int scriptId = executorPool.preCompileScript("test.lua", SCRIPT);
+		Assert.assertEquals(lastModified, Files.getLastModifiedTime(cacheFile).toMillis());
+
+		final LuaScriptExecutor executor = new LuaScriptExecutor(executorPool);
+		Assert.assertEquals(3, executor.execute(scriptId, executorPool.getScript(scriptId), new ScriptBindings(), true).getInt("result"));
+		dummyGameScriptingEngine.dispose();
+	}
+}
@@ -29,15 +29,117 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Assert;
+import org.junit.Test;
 import org.mini2Dx.miniscript.core.AbstractGameScriptingEngineTest;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+import org.mini2Dx.miniscript.core.ScriptInvocationListener;
 
 /**
  * UATs for {@link LuaGameScriptingEngine} without sandboxing
  */
 public class LuaGameScriptingEngineTest extends AbstractGameScriptingEngineTest {
 
+	@Test
+	public void testGlobalsResetBetweenInvocations() throws Exception {
+		final AtomicInteger invocationResult = new AtomicInteger(-1);
+		final ScriptInvocationListener invocationListener = new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				invocationResult.set(executionResult.getInt("counter"));
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		};
+
+		final int scriptId = scriptingEngine.compileScript("counter = (counter or 0) + 1\nprint = nil");
+		scriptingEngine.invokeCompiledScriptSync(0, scriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals(1, invocationResult.get());
+		scriptingEngine.invokeCompiledScriptSync(1, scriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals(1, invocationResult.get());
+
+		final int printScriptId = scriptingEngine.compileScript("counter = type(print)");
+		scriptingEngine.invokeCompiledScriptSync(2, printScriptId, new ScriptBindings(), new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				Assert.assertEquals("function", executionResult.get("counter"));
+				invocationResult.set(2);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		});
+		Assert.assertEquals(2, invocationResult.get());
+	}
+
+	@Test
+	public void testLibraryTablesResetBetweenInvocations() throws Exception {
+		final AtomicReference<Object> invocationResult = new AtomicReference<Object>();
+		final ScriptInvocationListener invocationListener = new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				invocationResult.set(executionResult.get("result"));
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		};
+
+		final int modifyScriptId = scriptingEngine.compileScript("string.extra = 1\nmath.floor = nil\nresult = type(math.floor)");
+		scriptingEngine.invokeCompiledScriptSync(0, modifyScriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals("nil", invocationResult.get());
+
+		final int checkScriptId = scriptingEngine.compileScript("result = type(math.floor) .. type(string.extra) .. type(leaked)");
+		scriptingEngine.invokeCompiledScriptSync(1, checkScriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals("functionnilnil", invocationResult.get());
+
+		//Globals added after the script replaces the metatable of _G are still removed
+		final int metatableScriptId = scriptingEngine.compileScript("setmetatable(_G, {})\nleaked = 1\nresult = type(leaked)");
+		scriptingEngine.invokeCompiledScriptSync(2, metatableScriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals("number", invocationResult.get());
+		scriptingEngine.invokeCompiledScriptSync(3, checkScriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals("functionnilnil", invocationResult.get());
+	}
+
 	@Override
 	protected GameScriptingEngine createScriptingEngine() {
 		return new LuaGameScriptingEngine(1,false);
@@ -2,6 +2,11 @@ package org.mini2Dx.miniscript.lua;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.jse.JsePlatform;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
@@ -46,6 +51,93 @@ public class LuaScriptExecutorPoolTest implements ScriptInvocationListener {
 		Assert.assertEquals(3, scriptExecutionTask.getScriptId());
 	}
 
+	@Test
+	public void testPreCompileScriptSharesPrototype() throws Exception {
+		DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		LuaScriptExecutorPool luaScriptExecutorPool = new LuaScriptExecutorPool(dummyGameScriptingEngine, new NoopClasspathScriptProvider(), 2, false);
+
+		final int scriptId = luaScriptExecutorPool.preCompileScript("test.lua", "result = 1 + 2");
+		final LuaPrototypeGameScript script = (LuaPrototypeGameScript) luaScriptExecutorPool.getScript(scriptId);
+		Assert.assertNotNull(script.getPrototype());
+		Assert.assertTrue(script.hasScript());
+
+		final int invalidScriptId = luaScriptExecutorPool.preCompileScript("invalid.lua", "result = ");
+		final LuaPrototypeGameScript invalidScript = (LuaPrototypeGameScript) luaScriptExecutorPool.getScript(invalidScriptId);
+		Assert.assertNull(invalidScript.getPrototype());
+		Assert.assertFalse(invalidScript.hasScript());
+
+		final LuaScriptExecutor executor1 = new LuaScriptExecutor(luaScriptExecutorPool);
+		final LuaScriptExecutor executor2 = new LuaScriptExecutor(luaScriptExecutorPool);
+		Assert.assertEquals(3, executor1.execute(scriptId, script, new ScriptBindings(), true).getInt("result"));
+		Assert.assertEquals(3, executor2.execute(scriptId, script, new ScriptBindings(), true).getInt("result"));
+
+		invalidScript.setScript(new LuaClosure(script.getPrototype(), LuaValue.NIL));
+		Assert.assertSame(script.getPrototype(), invalidScript.getPrototype());
+		Assert.assertTrue(invalidScript.hasScript());
+		Assert.assertEquals(3, executor1.execute(invalidScriptId, invalidScript, new ScriptBindings(), true).getInt("result"));
+
+		//Executors re-bind a script once it is replaced
+		final int replacementScriptId = luaScriptExecutorPool.preCompileScript("replacement.lua", "result = 5");
+		script.setPrototype(((LuaPrototypeGameScript) luaScriptExecutorPool.getScript(replacementScriptId)).getPrototype());
+		Assert.assertEquals(5, executor1.execute(scriptId, script, new ScriptBindings(), true).getInt("result"));
+		Assert.assertEquals(5, executor2.execute(scriptId, script, new ScriptBindings(), true).getInt("result"));
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testPreCompileBytecodeScript() throws Exception {
+		DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		LuaScriptExecutorPool luaScriptExecutorPool = new LuaScriptExecutorPool(dummyGameScriptingEngine, new NoopClasspathScriptProvider(), 2, false);
+		luaScriptExecutorPool.setBytecodeCompilationEnabled(true);
+
+		final int scriptId = luaScriptExecutorPool.preCompileScript("test.lua", "local function add(a, b) return a + b end\nresult = add(1, 2)");
+		final GameScript<LuaValue> script = luaScriptExecutorPool.getScript(scriptId);
+		Assert.assertTrue(script instanceof PerThreadClasspathGameScript);
+
+		final int invalidScriptId = luaScriptExecutorPool.preCompileScript("invalid.lua", "result = ");
+		Assert.assertTrue(luaScriptExecutorPool.getScript(invalidScriptId) instanceof LuaPrototypeGameScript);
+
+		final LuaScriptExecutor executor = new LuaScriptExecutor(luaScriptExecutorPool);
+		Assert.assertEquals(3, executor.execute(scriptId, script, new ScriptBindings(), true).getInt("result"));
+		Assert.assertEquals(3, executor.execute(scriptId, script, new ScriptBindings(), true).getInt("result"));
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testSandboxedGlobalsShareLibraryFunctions() throws Exception {
+		DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		LuaScriptExecutorPool luaScriptExecutorPool = new LuaScriptExecutorPool(dummyGameScriptingEngine, new NoopClasspathScriptProvider(), 2, true);
+
+		final Globals globals1 = luaScriptExecutorPool.createGlobals();
+		final Globals globals2 = luaScriptExecutorPool.createGlobals();
+		Assert.assertNotSame(globals1.get("string"), globals2.get("string"));
+		Assert.assertSame(globals1.get("string").get("format"), globals2.get("string").get("format"));
+		Assert.assertTrue(globals1.get("debug").isnil());
+
+		globals1.get("string").set("format", LuaValue.NIL);
+		Assert.assertTrue(globals1.get("string").get("format").isnil());
+		Assert.assertFalse(globals2.get("string").get("format").isnil());
+		Assert.assertFalse(luaScriptExecutorPool.createGlobals().get("string").get("format").isnil());
+
+		//Each environment has its own random number generator
+		Assert.assertNotSame(globals1.get("math").get("random"), globals2.get("math").get("random"));
+		globals1.get("math").get("randomseed").call(LuaValue.valueOf(7));
+		globals2.get("math").get("randomseed").call(LuaValue.valueOf(7));
+		Assert.assertEquals(globals1.get("math").get("random").call().todouble(),
+				globals2.get("math").get("random").call().todouble(), 0.0);
+
+		//The string metatable shared by all environments cannot be reached or modified
+		Assert.assertEquals("ABC", new LuaClosure(LuaScriptExecutorPool.compilePrototype("upper", "return ('abc'):upper()"), globals1).call().tojstring());
+		Assert.assertEquals(LuaValue.FALSE, new LuaClosure(LuaScriptExecutorPool.compilePrototype("metatable", "return getmetatable('')"), globals1).call());
+		try {
+			LuaString.s_metatable.get(LuaValue.INDEX).set("upper", LuaValue.NIL);
+			Assert.fail("Expected the string library to be read-only");
+		} catch (LuaError e) {
+		}
+		Assert.assertEquals("ABC", new LuaClosure(LuaScriptExecutorPool.compilePrototype("upper", "return ('abc'):upper()"), globals2).call().tojstring());
+		dummyGameScriptingEngine.dispose();
+	}
+
 	@Override
 	public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
 	}
@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.lua;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.luaj.vm2.LuaValue;
+import org.mini2Dx.miniscript.core.GameScript;
+import org.mini2Dx.miniscript.core.NoopClasspathScriptProvider;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LuaScriptExecutor}
+ */
+public class LuaScriptExecutorTest {
+	private DummyGameScriptingEngine dummyGameScriptingEngine;
+	private LuaScriptExecutor executor;
+	private int scriptId;
+	private GameScript<LuaValue> script;
+
+	@Before
+	public void setUp() throws Exception {
+		dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final LuaScriptExecutorPool executorPool = new LuaScriptExecutorPool(dummyGameScriptingEngine,
+				new NoopClasspathScriptProvider(), 1, false);
+		scriptId = executorPool.preCompileScript("size.lua", "size = target and target:size() or 0");
+		script = executorPool.getScript(scriptId);
+		executor = new LuaScriptExecutor(executorPool);
+	}
+
+	@After
+	public void teardown() {
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testCoercedObjectReused() throws Exception {
+		final List<String> target = new ArrayList<String>();
+		target.add("item");
+
+		Assert.assertEquals(1, execute(target));
+		final LuaValue coercedTarget = executor.getCachedCoercion(target);
+		Assert.assertNotNull(coercedTarget);
+
+		target.add("item");
+		for(int i = 0; i < LuaScriptExecutor.COERCION_CACHE_EXPIRY * 2; i++) {
+			Assert.assertEquals(2, execute(target));
+			Assert.assertSame(coercedTarget, executor.getCachedCoercion(target));
+		}
+	}
+
+	@Test
+	public void testCoercedObjectEvictedWhenUnused() throws Exception {
+		final List<String> staleTarget = new ArrayList<String>();
+		final List<String> activeTarget = new ArrayList<String>();
+		Assert.assertEquals(0, execute(staleTarget));
+		Assert.assertNotNull(executor.getCachedCoercion(staleTarget));
+
+		for(int i = 0; i < LuaScriptExecutor.COERCION_CACHE_EXPIRY - 1; i++) {
+			execute(activeTarget);
+		}
+		Assert.assertNotNull(executor.getCachedCoercion(staleTarget));
+
+		//Evicted by the next expiry check once the value is older than the expiry
+		for(int i = 0; i < LuaScriptExecutor.COERCION_CACHE_EXPIRY; i++) {
+			execute(activeTarget);
+		}
+		Assert.assertNull(executor.getCachedCoercion(staleTarget));
+		Assert.assertNotNull(executor.getCachedCoercion(activeTarget));
+	}
+
+	@Test
+	public void testPrimitivesAndNullNotCached() throws Exception {
+		//The embedded script invoker is always bound
+		Assert.assertEquals(0, executor.execute(scriptId, script, new ScriptBindings(), true).getInt("size"));
+		final int totalCachedCoercions = executor.getTotalCachedCoercions();
+
+		final ScriptBindings bindings = new ScriptBindings();
+		bindings.put("intValue", 7);
+		bindings.put("longValue", 7L);
+		bindings.put("doubleValue", 7.5);
+		bindings.put("booleanValue", Boolean.TRUE);
+		bindings.put("charValue", 'c');
+		bindings.put("target", null);
+		Assert.assertEquals(0, executor.execute(scriptId, script, bindings, true).getInt("size"));
+		Assert.assertEquals(totalCachedCoercions, executor.getTotalCachedCoercions());
+		Assert.assertNull(executor.getCachedCoercion(7));
+		Assert.assertNull(executor.getCachedCoercion(Boolean.TRUE));
+	}
+
+	private int execute(List<String> target) throws Exception {
+		final ScriptBindings bindings = new ScriptBindings();
+		bindings.put("target", target);
+		return executor.execute(scriptId, script, bindings, true).getInt("size");
+	}
+}
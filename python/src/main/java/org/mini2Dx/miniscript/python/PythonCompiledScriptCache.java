@@ -0,0 +1,152 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.python;
+
+import org.mini2Dx.miniscript.core.CompiledScriptStore;
+import org.python.Version;
+import org.python.antlr.base.mod;
+import org.python.compiler.LegacyCompiler;
+import org.python.core.BytecodeLoader;
+import org.python.core.CompilerFlags;
+import org.python.core.ParserFacade;
+import org.python.core.PyCode;
+import org.python.core.PythonCodeBundle;
+import org.python.core.PythonCompiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores the Java bytecode generated by Jython for scripts in a directory so that unchanged scripts
+ * do not need to be compiled again after a restart. Entries can also be generated at build time
+ * by the miniscript Gradle plugin.
+ *
+ * Entries are keyed by a SHA-256 hash of the Jython version, the script filename and the script content.
+ * The filename is part of the key since it is compiled into the bytecode for tracebacks.
+ */
+public class PythonCompiledScriptCache {
+	public static final String FILE_SUFFIX = ".pyclass";
+
+	private static final PythonCompiler COMPILER = new LegacyCompiler();
+
+	private final CompiledScriptStore compiledScriptStore;
+	private final AtomicInteger totalCompilations = new AtomicInteger(0);
+
+	public PythonCompiledScriptCache(Path directory) throws IOException {
+		compiledScriptStore = new CompiledScriptStore(directory, FILE_SUFFIX);
+	}
+
+	/**
+	 * Loads a script from the cache or compiles and stores it if it is not in the cache
+	 * @param filename The filename of the script used in error messages
+	 * @param scriptContent The script source
+	 * @return The compiled {@link PyCode}
+	 */
+	public PyCode compile(String filename, String scriptContent) {
+		final String key = getCacheKey(filename, scriptContent);
+		final byte[] cachedBytecode = compiledScriptStore.read(key);
+		if(cachedBytecode != null) {
+			try {
+				return BytecodeLoader.makeCode(getClassName(key), cachedBytecode, filename);
+			} catch (Exception | LinkageError e) {
+				//Corrupt or incompatible entry, recompile and replace it
+			}
+		}
+		final PythonCodeBundle codeBundle = compileCodeBundle(getClassName(key), filename, scriptContent);
+		compiledScriptStore.write(key, toBytecode(codeBundle));
+		try {
+			return codeBundle.loadCode();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Compiles a script and stores it in the cache if it is not already stored
+	 * @param filename The filename of the script used in error messages
+	 * @param scriptContent The script source
+	 */
+	public void store(String filename, String scriptContent) {
+		final String key = getCacheKey(filename, scriptContent);
+		if(compiledScriptStore.read(key) != null) {
+			return;
+		}
+		compiledScriptStore.write(key, toBytecode(compileCodeBundle(getClassName(key), filename, scriptContent)));
+	}
+
+	Path getCacheFile(String filename, String scriptContent) {
+		return compiledScriptStore.getFile(getCacheKey(filename, scriptContent));
+	}
+
+	/**
+	 * Returns the amount of times a script was compiled instead of loaded from the cache
+	 * @return The amount of compilations
+	 */
+	int getTotalCompilations() {
+		return totalCompilations.get();
+	}
+
+	public Path getDirectory() {
+		return compiledScriptStore.getDirectory();
+	}
+
+	private PythonCodeBundle compileCodeBundle(String className, String filename, String scriptContent) {
+		totalCompilations.incrementAndGet();
+		//Parse and compile the same way as PythonInterpreter.compile() so that cached scripts behave identically
+		final CompilerFlags compilerFlags = new CompilerFlags();
+		final mod node = ParserFacade.parseExpressionOrModule(new StringReader(scriptContent), filename, compilerFlags);
+		try {
+			return COMPILER.compile(node, className, filename, true, false, compilerFlags);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte[] toBytecode(PythonCodeBundle codeBundle) {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			codeBundle.writeTo(outputStream);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		return outputStream.toByteArray();
+	}
+
+	private static String getCacheKey(String filename, String scriptContent) {
+		return CompiledScriptStore.createKey(Version.getVersion(), filename, scriptContent);
+	}
+
+	private static String getClassName(String key) {
+		return "miniscript_" + key.substring(0, 16) + "$py";
+	}
+}
@@ -28,6 +28,9 @@ import org.mini2Dx.miniscript.core.GameScriptingEngine;
 import org.mini2Dx.miniscript.core.ScriptExecutorPool;
 import org.mini2Dx.miniscript.core.exception.SandboxingUnsupportedException;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * An implementation of {@link GameScriptingEngine} for Python-based scripts
  */
@@ -62,6 +65,46 @@ public class PythonGameScriptingEngine extends GameScriptingEngine {
 		return new PythonScriptExecutorPool(this, poolSize);
 	}
 
+	/**
+	 * Sets if all Python executors should share a single system state and module cache.
+	 * Each executor keeps its own local namespace. This must be called before any scripts are invoked.
+	 *
+	 * @param sharedSystemStateEnabled True if executors should share a system state
+	 */
+	public void setSharedSystemStateEnabled(boolean sharedSystemStateEnabled) {
+		((PythonScriptExecutorPool) getScriptExecutorPool()).setSharedSystemStateEnabled(sharedSystemStateEnabled);
+	}
+
+	/**
+	 * Returns if all Python executors share a single system state
+	 * @return True if the system state is shared
+	 */
+	public boolean isSharedSystemStateEnabled() {
+		return ((PythonScriptExecutorPool) getScriptExecutorPool()).isSharedSystemStateEnabled();
+	}
+
+	/**
+	 * Sets the directory to cache compiled scripts in. Scripts compiled after this is called
+	 * are loaded from the directory if their filepath and content are unchanged. The directory can be shared
+	 * by multiple processes and filled at build time by the miniscript Gradle plugin.
+	 *
+	 * @param directory The cache directory or null to disable caching
+	 * @throws IOException Thrown if the directory could not be created
+	 */
+	public void setCompiledScriptCacheDirectory(Path directory) throws IOException {
+		((PythonScriptExecutorPool) getScriptExecutorPool()).setCompiledScriptCache(
+				directory == null ? null : new PythonCompiledScriptCache(directory));
+	}
+
+	/**
+	 * Returns the directory compiled scripts are cached in
+	 * @return Null if caching is disabled
+	 */
+	public Path getCompiledScriptCacheDirectory() {
+		final PythonCompiledScriptCache compiledScriptCache = ((PythonScriptExecutorPool) getScriptExecutorPool()).getCompiledScriptCache();
+		return compiledScriptCache == null ? null : compiledScriptCache.getDirectory();
+	}
+
 	@Override
 	public boolean isSandboxingSupported() {
 		return false;
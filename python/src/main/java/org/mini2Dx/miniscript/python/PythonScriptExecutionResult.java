@@ -0,0 +1,46 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.python;
+
+import org.mini2Dx.miniscript.core.LazyScriptExecutionResult;
+import org.python.core.*;
+
+/**
+ * Stores the variable mappings after a Python script's execution, converting them when read
+ */
+public class PythonScriptExecutionResult extends LazyScriptExecutionResult<PyObject> {
+
+	@Override
+	protected void convert(String key, PyObject value) {
+		if(value instanceof PyBoolean) {
+			putBoolean(key, ((PyBoolean) value).getBooleanValue());
+		} else if(value instanceof PyInteger) {
+			putInt(key, ((PyInteger) value).getValue());
+		} else if(value instanceof PyFloat) {
+			putDouble(key, ((PyFloat) value).getValue());
+		} else {
+			put(key, Py.tojava(value, Object.class));
+		}
+	}
+}
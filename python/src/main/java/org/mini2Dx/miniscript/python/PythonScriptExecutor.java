@@ -34,13 +34,20 @@ import org.python.util.InteractiveInterpreter;
 public class PythonScriptExecutor implements ScriptExecutor<PyCode> {
 	private final PythonScriptExecutorPool executorPool;
 	private final InteractiveInterpreter pythonInterpreter;
+	private final PyStringMap initialLocals;
 
 	public PythonScriptExecutor(PythonScriptExecutorPool executorPool) {
 		this.executorPool = executorPool;
 
-		pythonInterpreter = new InteractiveInterpreter();
+		final PySystemState sharedSystemState = executorPool.getSharedSystemState();
+		if(sharedSystemState == null) {
+			pythonInterpreter = new InteractiveInterpreter();
+		} else {
+			pythonInterpreter = new InteractiveInterpreter(null, sharedSystemState);
+		}
 		pythonInterpreter.setErr(System.err);
 		pythonInterpreter.setOut(System.out);
+		initialLocals = ((PyStringMap) pythonInterpreter.getLocals()).copy();
 	}
 
 	@Override
@@ -50,6 +57,16 @@ public class PythonScriptExecutor implements ScriptExecutor<PyCode> {
 
 	@Override
 	public ScriptExecutionResult execute(int scriptId, GameScript<PyCode> script, ScriptBindings bindings, boolean returnResult) throws Exception {
+		return execute(scriptId, script, bindings, returnResult, null);
+	}
+
+	@Override
+	public ScriptExecutionResult execute(int scriptId, GameScript<PyCode> script, ScriptBindings bindings, String[] resultKeys) throws Exception {
+		return execute(scriptId, script, bindings, true, resultKeys);
+	}
+
+	private ScriptExecutionResult execute(int scriptId, GameScript<PyCode> script, ScriptBindings bindings,
+	                                      boolean returnResult, String[] resultKeys) throws Exception {
 		final PyCode pythonScript = script.getScript();
 
 		final PythonEmbeddedScriptInvoker embeddedScriptInvoker = executorPool.getEmbeddedScriptInvokerPool().allocate();
@@ -58,7 +75,7 @@ public class PythonScriptExecutor implements ScriptExecutor<PyCode> {
 		embeddedScriptInvoker.setParentScriptId(scriptId);
 
 		for (String variableName : bindings.keySet()) {
-			pythonInterpreter.set(variableName, bindings.get(variableName));
+			setVariable(bindings, variableName);
 		}
 		pythonInterpreter.set(ScriptBindings.SCRIPT_PARENT_ID_VAR, -1);
 		pythonInterpreter.set(ScriptBindings.SCRIPT_ID_VAR, scriptId);
@@ -79,11 +96,25 @@ public class PythonScriptExecutor implements ScriptExecutor<PyCode> {
 		if(!returnResult) {
 			return null;
 		}
-		final ScriptExecutionResult executionResult = new ScriptExecutionResult(null);
+		final PythonScriptExecutionResult executionResult = new PythonScriptExecutionResult();
 
 		final PyStringMap  locals = (PyStringMap) pythonInterpreter.getLocals();
-		for(Object key : locals.keys()) {
-			executionResult.put(key.toString(), pythonInterpreter.get(key.toString(), Object.class));
+		if(resultKeys != null) {
+			for(String key : resultKeys) {
+				final PyObject value = locals.__finditem__(key);
+				if(value != null) {
+					executionResult.putUnconverted(key, value);
+				}
+			}
+		} else {
+			for(Object key : locals.keys()) {
+				final PyObject value = locals.__finditem__(key.toString());
+				if(value == null) {
+					executionResult.put(key.toString(), null);
+				} else {
+					executionResult.putUnconverted(key.toString(), value);
+				}
+			}
 		}
 		return executionResult;
 	}
@@ -112,14 +143,83 @@ public class PythonScriptExecutor implements ScriptExecutor<PyCode> {
 
 		final PyStringMap  locals = (PyStringMap) pythonInterpreter.getLocals();
 		for(Object key : locals.keys()) {
-			bindings.put(key.toString(), pythonInterpreter.get(key.toString(), Object.class));
+			putResult(bindings, key.toString());
+		}
+	}
+
+	private void setVariable(ScriptBindings bindings, String variableName) {
+		final ScriptBindingType type = bindings.getType(variableName);
+		if(type == null) {
+			return;
+		}
+		switch(type) {
+		case INT:
+			pythonInterpreter.set(variableName, new PyInteger(bindings.getInt(variableName)));
+			break;
+		case FLOAT:
+		case DOUBLE:
+			pythonInterpreter.set(variableName, new PyFloat(bindings.getDouble(variableName)));
+			break;
+		case BOOLEAN:
+			pythonInterpreter.set(variableName, Py.newBoolean(bindings.getBoolean(variableName)));
+			break;
+		default:
+			pythonInterpreter.set(variableName, bindings.get(variableName));
+			break;
+		}
+	}
+
+	private void putResult(ScriptBindings bindings, String variableName) {
+		final PyObject value = pythonInterpreter.get(variableName);
+		if(value instanceof PyBoolean) {
+			bindings.putBoolean(variableName, ((PyBoolean) value).getBooleanValue());
+		} else if(value instanceof PyInteger) {
+			bindings.putInt(variableName, ((PyInteger) value).getValue());
+		} else if(value instanceof PyFloat) {
+			bindings.putDouble(variableName, ((PyFloat) value).getValue());
+		} else {
+			bindings.put(variableName, value == null ? null : Py.tojava(value, Object.class));
+		}
+	}
+
+	/**
+	 * Restores the interpreter's namespace to its initial state. Only keys present
+	 * in the namespace are visited so the cost is proportional to the variables set by the script.
+	 */
+	private void resetLocals() {
+		final PyStringMap locals = (PyStringMap) pythonInterpreter.getLocals();
+		for(PyObject key : locals.keys().asIterable()) {
+			final String variableName = key.toString();
+			final PyObject initialValue = initialLocals.__finditem__(variableName);
+			if(initialValue == null) {
+				locals.__delitem__(variableName);
+			} else if(locals.__finditem__(variableName) != initialValue) {
+				locals.__setitem__(variableName, initialValue);
+			}
+		}
+		if(locals.__len__() != initialLocals.__len__()) {
+			//Restore any initial variables deleted by the script
+			for(PyObject key : initialLocals.keys().asIterable()) {
+				final String variableName = key.toString();
+				if(locals.__finditem__(variableName) == null) {
+					locals.__setitem__(variableName, initialLocals.__finditem__(variableName));
+				}
+			}
 		}
 	}
 
+	PySystemState getSystemState() {
+		return pythonInterpreter.getSystemState();
+	}
+
+	PyObject getLocals() {
+		return pythonInterpreter.getLocals();
+	}
+
 	@Override
 	public void release() {
 		try {
-			pythonInterpreter.cleanup();
+			resetLocals();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -27,22 +27,32 @@ import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
 import org.mini2Dx.miniscript.core.exception.NoSuchScriptException;
 import org.mini2Dx.miniscript.core.exception.ScriptExecutorUnavailableException;
-import org.mini2Dx.miniscript.core.util.ReadWriteBlockingQueue;
 import org.mini2Dx.miniscript.core.util.ReadWriteMap;
+import org.python.antlr.base.mod;
+import org.python.core.CompileMode;
+import org.python.core.CompilerFlags;
+import org.python.core.ParserFacade;
+import org.python.core.Py;
 import org.python.core.PyCode;
+import org.python.core.PySystemState;
 
+import java.io.StringReader;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 
 /**
  * An implementation of {@link ScriptExecutorPool} for Python-based scripts
  */
 public class PythonScriptExecutorPool implements ScriptExecutorPool<PyCode> {
+	private static final Object JYTHON_INITIALISATION_LOCK = new Object();
+	private static volatile boolean jythonInitialised = false;
+
 	private final Map<Integer, GameScript<PyCode>> scripts = new ReadWriteMap<>();
 	private final Map<String, Integer> filepathToScriptId = new ReadWriteMap<>();
 	private final Map<Integer, String> scriptIdToFilepath = new ReadWriteMap<Integer, String>();
-	private final BlockingQueue<ScriptExecutor<PyCode>> executors;
+	private final ScriptExecutorQueue<PyCode> executors;
 	private final GameScriptingEngine gameScriptingEngine;
+	private volatile PythonCompiledScriptCache compiledScriptCache;
+	private volatile PySystemState sharedSystemState;
 	private final SynchronizedObjectPool<PythonEmbeddedScriptInvoker> embeddedScriptInvokerPool = new SynchronizedObjectPool<PythonEmbeddedScriptInvoker>() {
 		@Override
 		protected PythonEmbeddedScriptInvoker construct() {
@@ -52,10 +62,29 @@ public class PythonScriptExecutorPool implements ScriptExecutorPool<PyCode> {
 
 	public PythonScriptExecutorPool(GameScriptingEngine gameScriptingEngine, int poolSize) {
 		this.gameScriptingEngine = gameScriptingEngine;
-		executors = new ReadWriteBlockingQueue<ScriptExecutor<PyCode>>(poolSize);
+		executors = new ScriptExecutorQueue<PyCode>(poolSize) {
+			@Override
+			protected ScriptExecutor<PyCode> construct() {
+				initialiseJython();
+				return new PythonScriptExecutor(PythonScriptExecutorPool.this);
+			}
+		};
+	}
 
-		for (int i = 0; i < poolSize; i++) {
-			executors.offer(new PythonScriptExecutor(this));
+	/**
+	 * Initialises the Jython runtime once. Jython's static initialisers can deadlock when first used
+	 * from several threads at once, e.g. while executors are constructed in the background.
+	 */
+	static void initialiseJython() {
+		if(jythonInitialised) {
+			return;
+		}
+		synchronized(JYTHON_INITIALISATION_LOCK) {
+			if(jythonInitialised) {
+				return;
+			}
+			PySystemState.initialize();
+			jythonInitialised = true;
 		}
 	}
 
@@ -71,12 +100,17 @@ public class PythonScriptExecutorPool implements ScriptExecutorPool<PyCode> {
 
 	@Override
 	public int preCompileScript(String filepath, String scriptContent) throws InsufficientCompilersException {
-		ScriptExecutor<PyCode> executor = executors.poll();
-		if (executor == null) {
-			throw new InsufficientCompilersException();
+		final GameScript<PyCode> script;
+		final PythonCompiledScriptCache compiledScriptCache = this.compiledScriptCache;
+		initialiseJython();
+		if(compiledScriptCache != null) {
+			script = new GlobalGameScript<PyCode>(compiledScriptCache.compile(filepath, scriptContent));
+		} else {
+			//Same as PythonInterpreter.compile() which does not need an interpreter so scripts can be compiled in parallel
+			final CompilerFlags compilerFlags = new CompilerFlags();
+			final mod node = ParserFacade.parseExpressionOrModule(new StringReader(scriptContent), "<script>", compilerFlags);
+			script = new GlobalGameScript<PyCode>(Py.compile_flags(node, "<script>", CompileMode.eval, compilerFlags));
 		}
-		GameScript<PyCode> script = executor.compile(scriptContent);
-		executor.release();
 		scripts.put(script.getId(), script);
 		filepathToScriptId.put(filepath, script.getId());
 		scriptIdToFilepath.put(script.getId(), filepath);
@@ -116,6 +150,11 @@ public class PythonScriptExecutorPool implements ScriptExecutorPool<PyCode> {
 		return null;
 	}
 
+	@Override
+	public ScriptExecutorQueue<PyCode> getExecutorQueue() {
+		return executors;
+	}
+
 	@Override
 	public GameScriptingEngine getGameScriptingEngine() {
 		return gameScriptingEngine;
@@ -128,4 +167,44 @@ public class PythonScriptExecutorPool implements ScriptExecutorPool<PyCode> {
 	public SynchronizedObjectPool<PythonEmbeddedScriptInvoker> getEmbeddedScriptInvokerPool() {
 		return embeddedScriptInvokerPool;
 	}
+
+	public boolean isSharedSystemStateEnabled() {
+		return sharedSystemState != null;
+	}
+
+	/**
+	 * Sets if all executors should share a single {@link PySystemState} (and its module cache) owned by this pool.
+	 * Each executor keeps its own local namespace. The executors are recreated when this changes.
+	 *
+	 * @param sharedSystemStateEnabled True if executors should share a {@link PySystemState}
+	 * @throws IllegalStateException Thrown if scripts are currently executing
+	 */
+	public synchronized void setSharedSystemStateEnabled(boolean sharedSystemStateEnabled) {
+		if(sharedSystemStateEnabled == isSharedSystemStateEnabled()) {
+			return;
+		}
+		initialiseJython();
+		final PySystemState systemState = sharedSystemStateEnabled ? new PySystemState() : null;
+		//Switch only once the executors are discarded so that no executor is constructed with the other mode
+		if(!executors.reset(new Runnable() {
+			@Override
+			public void run() {
+				sharedSystemState = systemState;
+			}
+		})) {
+			throw new IllegalStateException("Cannot change Python system state mode while scripts are executing");
+		}
+	}
+
+	PySystemState getSharedSystemState() {
+		return sharedSystemState;
+	}
+
+	public PythonCompiledScriptCache getCompiledScriptCache() {
+		return compiledScriptCache;
+	}
+
+	public void setCompiledScriptCache(PythonCompiledScriptCache compiledScriptCache) {
+		this.compiledScriptCache = compiledScriptCache;
+	}
 }
@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.python;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+import org.python.core.PyCode;
+import org.python.core.PyTableCode;
+import org.python.util.PythonInterpreter;
+
+import java.nio.file.Files;
+
+/**
+ * Unit tests for {@link PythonCompiledScriptCache}
+ */
+public class PythonCompiledScriptCacheTest {
+	private static final String SCRIPT = "total = 0\nfor i in range(5):\n    total += i";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private PythonCompiledScriptCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		PythonScriptExecutorPool.initialiseJython();
+		cache = new PythonCompiledScriptCache(temporaryFolder.getRoot().toPath());
+	}
+
+	@Test
+	public void testStoredEntryIsLoaded() {
+		cache.store("quest/intro.py", SCRIPT);
+		cache.store("quest/intro.py", SCRIPT);
+		Assert.assertEquals(1, cache.getTotalCompilations());
+
+		final PyCode code = cache.compile("quest/intro.py", SCRIPT);
+		Assert.assertEquals(1, cache.getTotalCompilations());
+
+		final PythonInterpreter pythonInterpreter = new PythonInterpreter();
+		pythonInterpreter.exec(code);
+		Assert.assertEquals(10, pythonInterpreter.get("total").asInt());
+		pythonInterpreter.close();
+	}
+
+	@Test
+	public void testFilenameIsPartOfKey() {
+		cache.compile("quest/intro.py", SCRIPT);
+		final PyCode code = cache.compile("quest/outro.py", SCRIPT);
+		Assert.assertEquals(2, cache.getTotalCompilations());
+		Assert.assertEquals("quest/outro.py", ((PyTableCode) code).co_filename);
+
+		cache.compile("quest/outro.py", SCRIPT);
+		Assert.assertEquals(2, cache.getTotalCompilations());
+	}
+
+	@Test
+	public void testExpressionCompiledLikeInterpreter() {
+		final PythonInterpreter pythonInterpreter = new PythonInterpreter();
+		final PyCode uncachedCode = pythonInterpreter.compile("3 * 7");
+		final PyCode cachedCode = cache.compile("expression.py", "3 * 7");
+		Assert.assertEquals(pythonInterpreter.eval(uncachedCode), pythonInterpreter.eval(cachedCode));
+		Assert.assertEquals(21, pythonInterpreter.eval(cache.compile("expression.py", "3 * 7")).asInt());
+		Assert.assertEquals(1, cache.getTotalCompilations());
+		pythonInterpreter.close();
+	}
+
+	@Test
+	public void testUncachedCompilationMatchesCache() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final PythonScriptExecutorPool executorPool = new PythonScriptExecutorPool(dummyGameScriptingEngine, 1);
+		final int scriptId = executorPool.preCompileScript("expression.py", "3 * 7");
+
+		final PythonInterpreter pythonInterpreter = new PythonInterpreter();
+		Assert.assertEquals(pythonInterpreter.eval(cache.compile("expression.py", "3 * 7")),
+				pythonInterpreter.eval(executorPool.getScript(scriptId).getScript()));
+		pythonInterpreter.close();
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testCorruptEntryIsReplaced() throws Exception {
+		Files.write(cache.getCacheFile("quest/intro.py", SCRIPT), new byte[] { 1, 2, 3 });
+		Assert.assertNotNull(cache.compile("quest/intro.py", SCRIPT));
+		Assert.assertEquals(1, cache.getTotalCompilations());
+		Assert.assertTrue(Files.size(cache.getCacheFile("quest/intro.py", SCRIPT)) > 3);
+	}
+
+	@Test
+	public void testExecutorPoolUsesCache() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final PythonScriptExecutorPool executorPool = new PythonScriptExecutorPool(dummyGameScriptingEngine, 1);
+		executorPool.setCompiledScriptCache(cache);
+
+		cache.store("quest/intro.py", SCRIPT);
+		final int scriptId = executorPool.preCompileScript("quest/intro.py", SCRIPT);
+		Assert.assertEquals(1, cache.getTotalCompilations());
+		Assert.assertTrue(executorPool.getScript(scriptId).hasScript());
+		dummyGameScriptingEngine.dispose();
+	}
+}
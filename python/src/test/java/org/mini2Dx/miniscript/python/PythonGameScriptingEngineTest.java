@@ -28,16 +28,56 @@ import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
+import org.junit.Test;
 import org.mini2Dx.miniscript.core.AbstractGameScriptingEngineTest;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.ScriptBindings;
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+import org.mini2Dx.miniscript.core.ScriptInvocationListener;
 
 /**
  * UATs for {@link PythonGameScriptingEngine}
  */
 public class PythonGameScriptingEngineTest extends AbstractGameScriptingEngineTest {
 
+	@Test
+	public void testLocalsResetBetweenInvocations() throws Exception {
+		final AtomicInteger invocationResult = new AtomicInteger(-1);
+		final ScriptInvocationListener invocationListener = new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				invocationResult.set(executionResult.getInt("counter"));
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return false;
+			}
+		};
+
+		final int scriptId = scriptingEngine.compileScript("counter = globals().get('counter', 0) + 1\ndel __name__");
+		final int nameScriptId = scriptingEngine.compileScript("counter = len(__name__)");
+		scriptingEngine.invokeCompiledScriptSync(0, scriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals(1, invocationResult.get());
+		scriptingEngine.invokeCompiledScriptSync(1, scriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals(1, invocationResult.get());
+
+		scriptingEngine.invokeCompiledScriptSync(2, nameScriptId, new ScriptBindings(), invocationListener);
+		Assert.assertEquals("__main__".length(), invocationResult.get());
+	}
+
 	@Override
 	protected GameScriptingEngine createScriptingEngine() {
 		return new PythonGameScriptingEngine(1);
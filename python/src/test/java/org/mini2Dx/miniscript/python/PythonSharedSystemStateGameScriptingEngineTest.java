@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.python;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.ScriptExecutor;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+import org.python.core.Py;
+import org.python.core.PyCode;
+
+/**
+ * UATs for {@link PythonGameScriptingEngine} with a shared system state
+ */
+public class PythonSharedSystemStateGameScriptingEngineTest extends PythonGameScriptingEngineTest {
+
+	@Test
+	public void testExecutorsShareSystemState() {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final PythonScriptExecutorPool executorPool = new PythonScriptExecutorPool(dummyGameScriptingEngine, 2);
+		executorPool.setSharedSystemStateEnabled(true);
+
+		final PythonScriptExecutor executor1 = new PythonScriptExecutor(executorPool);
+		final PythonScriptExecutor executor2 = new PythonScriptExecutor(executorPool);
+		Assert.assertSame(executorPool.getSharedSystemState(), executor1.getSystemState());
+		Assert.assertSame(executorPool.getSharedSystemState(), executor2.getSystemState());
+		Assert.assertNotSame(Py.defaultSystemState, executor1.getSystemState());
+		Assert.assertNotSame(executor1.getLocals(), executor2.getLocals());
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test
+	public void testSystemStateUnchangedWhileExecutorInUse() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final PythonScriptExecutorPool executorPool = new PythonScriptExecutorPool(dummyGameScriptingEngine, 2);
+
+		final ScriptExecutor<PyCode> executor = executorPool.getExecutorQueue().take();
+		try {
+			executorPool.setSharedSystemStateEnabled(true);
+			Assert.fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+		}
+		Assert.assertFalse(executorPool.isSharedSystemStateEnabled());
+		Assert.assertNull(executorPool.getSharedSystemState());
+
+		executorPool.release(executor);
+		executorPool.setSharedSystemStateEnabled(true);
+		Assert.assertTrue(executorPool.isSharedSystemStateEnabled());
+		final PythonScriptExecutor newExecutor = (PythonScriptExecutor) executorPool.getExecutorQueue().take();
+		Assert.assertSame(executorPool.getSharedSystemState(), newExecutor.getSystemState());
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Override
+	protected GameScriptingEngine createScriptingEngine() {
+		final PythonGameScriptingEngine result = new PythonGameScriptingEngine(1);
+		result.setSharedSystemStateEnabled(true);
+		return result;
+	}
+}
@@ -24,6 +24,7 @@
 package org.mini2Dx.miniscript.ruby;
 
 import org.mini2Dx.miniscript.core.ClasspathScriptProvider;
+import org.mini2Dx.miniscript.core.GameScript;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
 import org.mini2Dx.miniscript.core.ScriptExecutorPool;
 import org.mini2Dx.miniscript.core.exception.SandboxingUnsupportedException;
@@ -74,6 +75,28 @@ public class RubyGameScriptingEngine extends GameScriptingEngine {
 		super(classpathScriptProvider, maxConcurrentScripts, sandboxed);
 	}
 
+	/**
+	 * Sets if all script threads should share a single JRuby runtime instead of creating one runtime per thread.
+	 * Each invocation keeps its own variables. This must be called before any scripts are compiled.
+	 *
+	 * @param sharedRuntimeEnabled True if a single runtime should be shared
+	 */
+	public void setSharedRuntimeEnabled(boolean sharedRuntimeEnabled) {
+		((RubyScriptExecutorPool) getScriptExecutorPool()).setSharedRuntimeEnabled(sharedRuntimeEnabled);
+	}
+
+	/**
+	 * Returns if all script threads share a single JRuby runtime
+	 * @return True if the runtime is shared
+	 */
+	public boolean isSharedRuntimeEnabled() {
+		return ((RubyScriptExecutorPool) getScriptExecutorPool()).isSharedRuntimeEnabled();
+	}
+
+	GameScript<?> getScript(int scriptId) {
+		return ((RubyScriptExecutorPool) getScriptExecutorPool()).getScript(scriptId);
+	}
+
 	@Override
 	protected ScriptExecutorPool<?> createScriptExecutorPool(ClasspathScriptProvider classpathScriptProvider, int poolSize, boolean sandboxing) {
 		if(sandboxing) {
@@ -89,6 +112,6 @@ public class RubyGameScriptingEngine extends GameScriptingEngine {
 
 	@Override
 	public boolean isEmbeddedSynchronousScriptSupported() {
-		return false;
+		return true;
 	}
 }
@@ -25,6 +25,9 @@ package org.mini2Dx.miniscript.ruby;
 
 import org.jruby.embed.EmbedEvalUnit;
 import org.jruby.embed.ScriptingContainer;
+import org.jruby.embed.variable.BiVariable;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.jruby.runtime.scope.ManyVarsDynamicScope;
 import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.ScriptSkippedException;
 
@@ -46,6 +49,17 @@ public class RubyScriptExecutor implements ScriptExecutor<EmbedEvalUnit> {
 	@Override
 	public ScriptExecutionResult execute(int scriptId, GameScript<EmbedEvalUnit> s, ScriptBindings bindings,
 			boolean returnResult) throws Exception {
+		return execute(scriptId, s, bindings, returnResult, null);
+	}
+
+	@Override
+	public ScriptExecutionResult execute(int scriptId, GameScript<EmbedEvalUnit> s, ScriptBindings bindings,
+			String[] resultKeys) throws Exception {
+		return execute(scriptId, s, bindings, true, resultKeys);
+	}
+
+	private ScriptExecutionResult execute(int scriptId, GameScript<EmbedEvalUnit> s, ScriptBindings bindings,
+			boolean returnResult, String[] resultKeys) throws Exception {
 		final PerThreadGameScript<EmbedEvalUnit> script = (PerThreadGameScript<EmbedEvalUnit>) s;
 
 		final ScriptingContainer scriptingContainer = executorPool.getLocalScriptingContainer();
@@ -81,7 +95,17 @@ public class RubyScriptExecutor implements ScriptExecutor<EmbedEvalUnit> {
 			scriptingContainer.clear();
 			return null;
 		}		
-		ScriptExecutionResult executionResult = new ScriptExecutionResult(scriptingContainer.getVarMap().getMap());
+		final ScriptExecutionResult executionResult;
+		if(resultKeys != null) {
+			executionResult = new ScriptExecutionResult(null);
+			for(String resultKey : resultKeys) {
+				if(scriptingContainer.getVarMap().containsKey(resultKey)) {
+					executionResult.put(resultKey, scriptingContainer.getVarMap().get(resultKey));
+				}
+			}
+		} else {
+			executionResult = new ScriptExecutionResult(scriptingContainer.getVarMap().getMap());
+		}
 		scriptingContainer.clear();
 		return executionResult;
 	}
@@ -89,31 +113,68 @@ public class RubyScriptExecutor implements ScriptExecutor<EmbedEvalUnit> {
 	@Override
 	public void executeEmbedded(int parentScriptId, int scriptId, GameScript<EmbedEvalUnit> s,
 								EmbeddedScriptInvoker embeddedScriptInvoker, ScriptBindings bindings) throws Exception {
-		throw new RuntimeException("Embedded synchronous script invokes not supported in Ruby.");
-		/*final PerThreadGameScript<EmbedEvalUnit> script = (PerThreadGameScript<EmbedEvalUnit>) s;
+		final PerThreadGameScript<EmbedEvalUnit> script = (PerThreadGameScript<EmbedEvalUnit>) s;
 
 		final ScriptingContainer scriptingContainer = executorPool.getLocalScriptingContainer();
+		final GameScript<EmbedEvalUnit> parentScript = executorPool.getScript(parentScriptId);
+		final ManyVarsDynamicScope parentScope = parentScript != null && parentScript.hasScript() ? parentScript.getScript().getScope() : null;
+		copyLocalVariables(parentScope, scriptingContainer, true);
+
+		final Object previousParentScriptId = scriptingContainer.getVarMap().get(ScriptBindings.SCRIPT_PARENT_ID_VAR);
 		scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_PARENT_ID_VAR, parentScriptId);
 		scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_ID_VAR, scriptId);
 		embeddedScriptInvoker.setParentScriptId(scriptId);
 
-		if (!script.hasScript()) {
-			script.setScript(scriptingContainer.parse(script.getContent()));
-		}
-
 		try {
+			if (!script.hasScript()) {
+				script.setScript(scriptingContainer.parse(script.getContent()));
+			}
 			EmbedEvalUnit embedEvalUnit = script.getScript();
 			embedEvalUnit.run();
 		} catch (Exception e) {
-			if(e.getCause() instanceof ScriptSkippedException) {
+			if(e instanceof ScriptSkippedException || e.getCause() instanceof ScriptSkippedException) {
 				throw new ScriptSkippedException();
 			} else {
 				throw e;
 			}
+		} finally {
+			scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_PARENT_ID_VAR, previousParentScriptId);
+			scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_ID_VAR, parentScriptId);
+			embeddedScriptInvoker.setParentScriptId(parentScriptId);
 		}
+		copyLocalVariables(parentScope, scriptingContainer, false);
+	}
 
-		scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_ID_VAR, parentScriptId);
-		embeddedScriptInvoker.setParentScriptId(parentScriptId);*/
+	/**
+	 * Each parsed script has its own local variable scope, so variables are copied between
+	 * the calling script's scope and the container's variable map around an embedded invoke
+	 * @param scope The calling script's scope
+	 * @param scriptingContainer The {@link ScriptingContainer} executing both scripts
+	 * @param toVarMap True if the scope values should be copied into the variable map, false for the reverse
+	 */
+	private void copyLocalVariables(ManyVarsDynamicScope scope, ScriptingContainer scriptingContainer, boolean toVarMap) {
+		if(scope == null) {
+			return;
+		}
+		for(BiVariable variable : scriptingContainer.getVarMap().getVariables()) {
+			if(variable.getType() != BiVariable.Type.LocalVariable) {
+				continue;
+			}
+			final int location = scope.getStaticScope().isDefined(variable.getName());
+			if(location < 0) {
+				continue;
+			}
+			final int index = location & 0xffff;
+			final int depth = location >> 16;
+			if(toVarMap) {
+				final IRubyObject value = scope.getValue(index, depth);
+				if(value != null) {
+					variable.setRubyObject(value);
+				}
+			} else if(variable.getRubyObject() != null) {
+				scope.setValue(index, variable.getRubyObject(), depth);
+			}
+		}
 	}
 
 	@Override
@@ -32,22 +32,24 @@ import org.mini2Dx.miniscript.core.*;
 import org.mini2Dx.miniscript.core.exception.InsufficientCompilersException;
 import org.mini2Dx.miniscript.core.exception.NoSuchScriptException;
 import org.mini2Dx.miniscript.core.exception.ScriptExecutorUnavailableException;
-import org.mini2Dx.miniscript.core.util.ReadWriteBlockingQueue;
 import org.mini2Dx.miniscript.core.util.ReadWriteMap;
+import org.mini2Dx.miniscript.core.util.WorkerLocal;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 
 /**
  * An implementation of {@link ScriptExecutorPool} for Ruby-based scripts
  */
 public class RubyScriptExecutorPool implements ScriptExecutorPool<EmbedEvalUnit> {
-	private final Map<Long, ScriptingContainer> threadCompilers = new ReadWriteMap<>();
+	private final WorkerLocal<ScriptingContainer> threadCompilers = new WorkerLocal<ScriptingContainer>();
 	private final Map<Integer, PerThreadGameScript<EmbedEvalUnit>> scripts = new ReadWriteMap<>();
 	private final Map<String, Integer> filepathToScriptId = new ReadWriteMap<String, Integer>();
 	private final Map<Integer, String> scriptIdToFilepath = new ReadWriteMap<Integer, String>();
-	private final BlockingQueue<ScriptExecutor<EmbedEvalUnit>> executors;
+	private final ScriptExecutorQueue<EmbedEvalUnit> executors;
 	private final GameScriptingEngine gameScriptingEngine;
+	private volatile ScriptingContainer sharedScriptingContainer;
 	private final SynchronizedObjectPool<RubyEmbeddedScriptInvoker> embeddedScriptInvokerPool = new SynchronizedObjectPool<RubyEmbeddedScriptInvoker>() {
 		@Override
 		protected RubyEmbeddedScriptInvoker construct() {
@@ -57,11 +59,12 @@ public class RubyScriptExecutorPool implements ScriptExecutorPool<EmbedEvalUnit>
 
 	public RubyScriptExecutorPool(GameScriptingEngine gameScriptingEngine, int poolSize) {
 		this.gameScriptingEngine = gameScriptingEngine;
-		executors = new ReadWriteBlockingQueue<>(poolSize);
-
-		for (int i = 0; i < poolSize; i++) {
-			executors.offer(new RubyScriptExecutor(this));
-		}
+		executors = new ScriptExecutorQueue<EmbedEvalUnit>(poolSize) {
+			@Override
+			protected ScriptExecutor<EmbedEvalUnit> construct() {
+				return new RubyScriptExecutor(RubyScriptExecutorPool.this);
+			}
+		};
 	}
 
 	@Override
@@ -117,14 +120,87 @@ public class RubyScriptExecutorPool implements ScriptExecutorPool<EmbedEvalUnit>
 	}
 
 	public ScriptingContainer getLocalScriptingContainer() {
-		long threadId = Thread.currentThread().getId();
-		if (!threadCompilers.containsKey(threadId)) {
-			ScriptingContainer scriptingContainer = new ScriptingContainer(LocalContextScope.SINGLETHREAD,
+		final ScriptingContainer sharedScriptingContainer = this.sharedScriptingContainer;
+		if(sharedScriptingContainer != null) {
+			return sharedScriptingContainer;
+		}
+		ScriptingContainer scriptingContainer = threadCompilers.get();
+		if (scriptingContainer == null) {
+			scriptingContainer = new ScriptingContainer(LocalContextScope.SINGLETHREAD,
 					LocalVariableBehavior.PERSISTENT);
 			scriptingContainer.setCompileMode(CompileMode.JIT);
-			threadCompilers.put(threadId, scriptingContainer);
+			threadCompilers.set(scriptingContainer);
+		}
+		return scriptingContainer;
+	}
+
+	@Override
+	public Collection<Integer> getPerThreadScriptIds() {
+		return new ArrayList<Integer>(scripts.keySet());
+	}
+
+	/**
+	 * Starts the JRuby runtime for the current thread and parses the script. The parsed script is only kept
+	 * when bindings are provided since binding names must be known when a script is parsed.
+	 * @param scriptId The script ID
+	 * @param scriptBindings Bindings representative of those the script will be invoked with. May be null.
+	 */
+	@Override
+	public void warmupScript(int scriptId, ScriptBindings scriptBindings) {
+		final PerThreadGameScript<EmbedEvalUnit> script = scripts.get(scriptId);
+		if(script == null) {
+			throw new NoSuchScriptException(scriptId);
+		}
+		if(script.hasScript()) {
+			return;
+		}
+		final ScriptingContainer scriptingContainer = getLocalScriptingContainer();
+		if(scriptBindings == null) {
+			scriptingContainer.parse(script.getContent());
+			return;
 		}
-		return threadCompilers.get(threadId);
+		scriptingContainer.getVarMap().putAll(scriptBindings);
+		scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_PARENT_ID_VAR, -1);
+		scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_ID_VAR, scriptId);
+		scriptingContainer.getVarMap().put(ScriptBindings.SCRIPT_INVOKE_VAR, null);
+		try {
+			script.setScript(scriptingContainer.parse(script.getContent()));
+		} finally {
+			scriptingContainer.clear();
+		}
+	}
+
+	public boolean isSharedRuntimeEnabled() {
+		return sharedScriptingContainer != null;
+	}
+
+	/**
+	 * Sets if all threads should share a single {@link LocalContextScope#CONCURRENT} JRuby runtime.
+	 * Variables remain local to each thread so invocations do not see each other's bindings.
+	 *
+	 * @param sharedRuntimeEnabled True if a single runtime should be shared
+	 * @throws IllegalStateException Thrown if scripts have already been compiled
+	 */
+	public synchronized void setSharedRuntimeEnabled(boolean sharedRuntimeEnabled) {
+		if(sharedRuntimeEnabled == isSharedRuntimeEnabled()) {
+			return;
+		}
+		if(!scripts.isEmpty()) {
+			throw new IllegalStateException("Cannot change JRuby runtime mode after scripts have been compiled");
+		}
+		if(!sharedRuntimeEnabled) {
+			sharedScriptingContainer = null;
+			return;
+		}
+		final ScriptingContainer scriptingContainer = new ScriptingContainer(LocalContextScope.CONCURRENT,
+				LocalVariableBehavior.PERSISTENT);
+		scriptingContainer.setCompileMode(CompileMode.JIT);
+		sharedScriptingContainer = scriptingContainer;
+	}
+
+	@Override
+	public ScriptExecutorQueue<EmbedEvalUnit> getExecutorQueue() {
+		return executors;
 	}
 
 	@Override
@@ -28,17 +28,69 @@ import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Ignore;
+import org.junit.Test;
 import org.mini2Dx.miniscript.core.AbstractGameScriptingEngineTest;
 import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.PerThreadGameScript;
+import org.mini2Dx.miniscript.core.ScriptExecutionResult;
+import org.mini2Dx.miniscript.core.ScriptInvocationListener;
+import org.mini2Dx.miniscript.core.WarmupProgress;
+import org.mini2Dx.miniscript.core.dummy.ScriptResult;
 
 /**
  * UATs for {@link RubyGameScriptingEngine}
  */
 public class RubyGameScriptingEngineTest extends AbstractGameScriptingEngineTest {
 
+	@Test
+	public void testWarmup() throws Exception {
+		final int scriptId = scriptingEngine.compileScript(getDefaultScriptFilepath(), getDefaultScript());
+		final WarmupProgress warmupProgress = scriptingEngine.warmup(scriptBindings);
+		Assert.assertTrue(warmupProgress.waitForCompletion(60L, TimeUnit.SECONDS));
+		Assert.assertTrue(warmupProgress.isComplete());
+		Assert.assertEquals(1f, warmupProgress.getProgress(), 0.001f);
+		Assert.assertTrue(warmupProgress.getTotalCompilations() > 0);
+		Assert.assertEquals(warmupProgress.getTotalCompilations(), warmupProgress.getCompletedCompilations());
+
+		//Each script thread must hold its own parsed script
+		final PerThreadGameScript<?> script = (PerThreadGameScript<?>) ((RubyGameScriptingEngine) scriptingEngine).getScript(scriptId);
+		Assert.assertEquals(warmupProgress.getTotalCompilations(), script.getTotalWorkerScripts());
+
+		scriptingEngine.invokeCompiledScript(scriptId, scriptBindings, new ScriptInvocationListener() {
+			@Override
+			public void onScriptSuccess(int scriptId, ScriptExecutionResult executionResult) {
+				scriptResult.set(checkExpectedScriptResults(executionResult) ? ScriptResult.SUCCESS : ScriptResult.INCORRECT_VARIABLES);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptSkipped(int scriptId) {
+				scriptResult.set(ScriptResult.SKIPPED);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public void onScriptException(int scriptId, Exception e) {
+				e.printStackTrace();
+				scriptResult.set(ScriptResult.EXCEPTION);
+				scriptExecuted.set(true);
+			}
+
+			@Override
+			public boolean callOnGameThread() {
+				return true;
+			}
+		});
+		while(!scriptExecuted.get()) {
+			scriptingEngine.update(1f);
+		}
+		Assert.assertEquals(ScriptResult.SUCCESS, scriptResult.get());
+	}
+
 	@Override
 	protected GameScriptingEngine createScriptingEngine() {
 		return new RubyGameScriptingEngine(1);
@@ -0,0 +1,79 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Thomas Cashman
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.miniscript.ruby;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jruby.embed.ScriptingContainer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.miniscript.core.GameScriptingEngine;
+import org.mini2Dx.miniscript.core.dummy.DummyGameScriptingEngine;
+
+/**
+ * UATs for {@link RubyGameScriptingEngine} with a shared JRuby runtime
+ */
+public class RubySharedRuntimeGameScriptingEngineTest extends RubyGameScriptingEngineTest {
+
+	@Test
+	public void testThreadsShareRuntime() throws Exception {
+		final DummyGameScriptingEngine dummyGameScriptingEngine = new DummyGameScriptingEngine();
+		final RubyScriptExecutorPool executorPool = new RubyScriptExecutorPool(dummyGameScriptingEngine, 1);
+		executorPool.setSharedRuntimeEnabled(true);
+		final ScriptingContainer scriptingContainer = executorPool.getLocalScriptingContainer();
+		scriptingContainer.put("threadValue", 1);
+
+		final AtomicReference<ScriptingContainer> otherScriptingContainer = new AtomicReference<ScriptingContainer>();
+		final AtomicReference<Object> otherThreadValue = new AtomicReference<Object>();
+		final Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				otherScriptingContainer.set(executorPool.getLocalScriptingContainer());
+				otherThreadValue.set(otherScriptingContainer.get().get("threadValue"));
+			}
+		});
+		thread.start();
+		thread.join();
+
+		Assert.assertSame(scriptingContainer, otherScriptingContainer.get());
+		Assert.assertNull(otherThreadValue.get());
+		Assert.assertEquals(1, scriptingContainer.get("threadValue"));
+		scriptingContainer.clear();
+		dummyGameScriptingEngine.dispose();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRuntimeModeLockedAfterCompile() throws Exception {
+		final RubyGameScriptingEngine rubyScriptingEngine = (RubyGameScriptingEngine) scriptingEngine;
+		rubyScriptingEngine.compileScript(getDefaultScriptFilepath(), getDefaultScript());
+		rubyScriptingEngine.setSharedRuntimeEnabled(false);
+	}
+
+	@Override
+	protected GameScriptingEngine createScriptingEngine() {
+		final RubyGameScriptingEngine result = new RubyGameScriptingEngine(1);
+		result.setSharedRuntimeEnabled(true);
+		return result;
+	}
+}